@@ -0,0 +1,46 @@
+package pepse;
+
+import danogl.GameObject;
+
+/**
+ * Interface for systems that track game objects only while they are in the game world.
+ */
+public interface AttachmentListener {
+
+    /**
+     * Called after a game object was added to the world.
+     *
+     * @param gameObject The game object that was added.
+     */
+    void onAttached(GameObject gameObject);
+
+    /**
+     * Called after a game object was removed from the world.
+     *
+     * @param gameObject The game object that was removed.
+     */
+    void onDetached(GameObject gameObject);
+
+    /**
+     * Returns a listener that tells this listener first and then another one.
+     *
+     * @param next The listener to tell second.
+     * @return The combined listener.
+     */
+    default AttachmentListener andThen(AttachmentListener next) {
+        AttachmentListener first = this;
+        return new AttachmentListener() {
+            @Override
+            public void onAttached(GameObject gameObject) {
+                first.onAttached(gameObject);
+                next.onAttached(gameObject);
+            }
+
+            @Override
+            public void onDetached(GameObject gameObject) {
+                first.onDetached(gameObject);
+                next.onDetached(gameObject);
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package pepse;
+
+import danogl.GameObject;
+import pepse.util.ObjectPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A record of one chunk: its content while it is being generated, and everything the procedural
+ * generation manager placed in the world for it, so a chunk can be unloaded without looking at
+ * the objects of any other chunk.
+ * Objects are scheduled first and then attached or detached one at a time, so the work of a
+ * chunk can be spread over several frames. Detached objects are returned to their pools, and
+ * objects tracked by a listener are handed to it only while they are attached.
+ */
+public class Chunk {
+    private final int index;
+    private final CompletableFuture<ChunkContent> generation;
+    private final List<GameObject> objects = new ArrayList<>();
+    private final List<Integer> layers = new ArrayList<>();
+    private final List<ObjectPool<?>> pools = new ArrayList<>();
+    private final List<AttachmentListener> listeners = new ArrayList<>();
+    private int attachedCount = 0;
+    private boolean hasContent = false;
+
+    /**
+     * Constructor for the Chunk class.
+     *
+     * @param index      The index of the chunk along the x-axis.
+     * @param generation The pending generation of the chunk's content.
+     */
+    public Chunk(int index, CompletableFuture<ChunkContent> generation) {
+        this.index = index;
+        this.generation = generation;
+    }
+
+    /**
+     * Returns the index of the chunk.
+     *
+     * @return The index of the chunk along the x-axis.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the generation of the chunk's content.
+     *
+     * @return The future holding the chunk's content.
+     */
+    public CompletableFuture<ChunkContent> getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns whether the chunk's content was scheduled to be added to the world.
+     *
+     * @return True if the chunk's content was scheduled.
+     */
+    public boolean hasContent() {
+        return hasContent;
+    }
+
+    /**
+     * Marks the chunk's content as scheduled to be added to the world.
+     */
+    public void markContentScheduled() {
+        hasContent = true;
+    }
+
+    /**
+     * Records a game object as belonging to this chunk, to be added to the world later.
+     *
+     * @param gameObject The game object.
+     * @param layer      The layer to add the game object to.
+     * @param pool       The pool to return the game object to once it is removed, or null.
+     */
+    public void schedule(GameObject gameObject, int layer, ObjectPool<?> pool) {
+        schedule(gameObject, layer, pool, null);
+    }
+
+    /**
+     * Records a tracked game object as belonging to this chunk, to be added to the world later.
+     *
+     * @param gameObject The game object.
+     * @param layer      The layer to add the game object to.
+     * @param pool       The pool to return the game object to once it is removed, or null.
+     * @param listener   The listener told when the object is attached and detached, or null.
+     */
+    public void schedule(GameObject gameObject, int layer, ObjectPool<?> pool,
+                         AttachmentListener listener) {
+        objects.add(gameObject);
+        layers.add(layer);
+        pools.add(pool);
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns whether some of the chunk's objects are still waiting to be added to the world.
+     *
+     * @return True if there are objects left to attach.
+     */
+    public boolean hasPendingAttach() {
+        return attachedCount < objects.size();
+    }
+
+    /**
+     * Adds the next scheduled object to the world.
+     *
+     * @param objectManager The manager to add the object through.
+     * @return True if an object was added, false if there was nothing left to add.
+     */
+    public boolean attachNext(GameObjectManager objectManager) {
+        if (!hasPendingAttach()) {
+            return false;
+        }
+        objectManager.addGameObject(objects.get(attachedCount), layers.get(attachedCount));
+        AttachmentListener listener = listeners.get(attachedCount);
+        if (listener != null) {
+            listener.onAttached(objects.get(attachedCount));
+        }
+        attachedCount++;
+        return true;
+    }
+
+    /**
+     * Removes the last attached object from the world and returns it to its pool, after
+     * returning the objects not yet attached to their pools.
+     *
+     * @param objectManager The manager the objects were added through.
+     * @return True if an object was removed, false if no attached objects were left.
+     */
+    public boolean detachNext(GameObjectManager objectManager) {
+        while (objects.size() > attachedCount) {
+            release(objects.size() - 1);
+        }
+        if (attachedCount == 0) {
+            return false;
+        }
+        attachedCount--;
+        objectManager.removeGameObject(objects.get(attachedCount), layers.get(attachedCount));
+        AttachmentListener listener = listeners.get(attachedCount);
+        if (listener != null) {
+            listener.onDetached(objects.get(attachedCount));
+        }
+        release(attachedCount);
+        return true;
+    }
+
+    /**
+     * Removes every attached object from the world at once and returns all objects to their
+     * pools.
+     *
+     * @param objectManager The manager the objects were added through.
+     */
+    public void detachAll(GameObjectManager objectManager) {
+        boolean detached = true;
+        while (detached) {
+            detached = detachNext(objectManager);
+        }
+    }
+
+    /**
+     * Forgets the last recorded object and returns it to its pool.
+     *
+     * @param last The position of the last recorded object.
+     */
+    private void release(int last) {
+        GameObject gameObject = objects.remove(last);
+        layers.remove(last);
+        listeners.remove(last);
+        ObjectPool<?> pool = pools.remove(last);
+        if (pool != null) {
+            pool.releaseObject(gameObject);
+        }
+    }
+
+    /**
+     * Stops the chunk's generation if it hasn't finished yet. The chunk's attached objects stay
+     * in the world until they are detached.
+     */
+    public void cancel() {
+        generation.cancel(false);
+    }
+}
@@ -0,0 +1,56 @@
+package pepse;
+
+import danogl.GameObject;
+import pepse.world.TerrainColumn;
+import pepse.world.trees.Tree;
+
+import java.util.List;
+
+/**
+ * The generated content of one chunk, built off the game thread and not yet added to the world.
+ */
+public class ChunkContent {
+    private final List<TerrainColumn> terrain;
+    private final GameObject terrainSprite;
+    private final List<Tree> trees;
+
+    /**
+     * Constructor for the ChunkContent class.
+     *
+     * @param terrain       The terrain columns of the chunk.
+     * @param terrainSprite The baked image of the chunk's terrain, or null if it wasn't baked.
+     * @param trees         The trees of the chunk.
+     */
+    public ChunkContent(List<TerrainColumn> terrain, GameObject terrainSprite, List<Tree> trees) {
+        this.terrain = terrain;
+        this.terrainSprite = terrainSprite;
+        this.trees = trees;
+    }
+
+    /**
+     * Returns the terrain columns of the chunk.
+     *
+     * @return A list of the chunk's terrain columns.
+     */
+    public List<TerrainColumn> getTerrain() {
+        return terrain;
+    }
+
+    /**
+     * Returns the baked image of the chunk's terrain.
+     *
+     * @return The GameObject drawing the whole chunk, or null if the chunk wasn't baked.
+     */
+    public GameObject getTerrainSprite() {
+        return terrainSprite;
+    }
+
+    /**
+     * Returns the trees of the chunk.
+     *
+     * @return A list of the chunk's trees.
+     */
+    public List<Tree> getTrees() {
+        return trees;
+    }
+}
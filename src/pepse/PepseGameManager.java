@@ -3,20 +3,28 @@ package pepse;
 import danogl.GameManager;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
-import danogl.components.ScheduledTask;
 import danogl.gui.*;
 import danogl.GameObject;
 import danogl.gui.rendering.Camera;
 import danogl.util.Vector2;
 import pepse.util.Constants;
+import pepse.util.TimerWheel;
 import pepse.world.*;
-import pepse.world.daynight.Night;
 import pepse.world.daynight.Sun;
 import pepse.world.daynight.SunHalo;
+import pepse.world.daynight.TimeOfDay;
+import pepse.world.trees.CanopySway;
+import pepse.world.trees.EatenFruit;
 import pepse.world.trees.Flora;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.FruitIndex;
 import pepse.world.weather.Cloud;
+import pepse.world.weather.CloudSystem;
+import pepse.world.weather.RainParticleSystem;
 import pepse.world.weather.RaindropGenerator;
+import pepse.world.weather.Snowfall;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -37,49 +45,73 @@ public class PepseGameManager extends GameManager implements GameObjectManager{
     private UserInputListener inputListener;
     private ImageReader imageReader;
     private EnergyDisplay energyDisplay;
+    private double displayedEnergy = Double.NaN;
     private Terrain terrain;
     private Avatar avatar;
-    private Cloud currentCloud;
+    private CloudSystem cloudSystem;
+    private TimeOfDay timeOfDay;
+    private CanopySway canopySway;
+    private FruitIndex fruitIndex;
+    private EatenFruit eatenFruit;
+    private final List<Fruit> touchedFruits = new ArrayList<>();
+    private final RaindropGenerator raindropGenerator = new RaindropGenerator();
+    private RainParticleSystem rainParticles;
+    private Snowfall snowfall;
+    private boolean snowKeyHeld = false;
+    private final TimerWheel timerWheel = new TimerWheel(Constants.TIMER_TICK_SECONDS,
+            Constants.TIMER_INITIAL_CAPACITY);
+    private final int fruitRegrowthEvent = timerWheel.registerHandler(this::regrowFruit);
 
     /** Creates the sky object and adds it to the background layer. */
-    private void createSky(){
+    private GameObject createSky(){
         GameObject sky = Sky.create(windowDimensions);
         gameObjects().addGameObject(sky, Layer.BACKGROUND);
+        return sky;
     }
 
-    /** Creates the night object and adds it to the foreground layer. */
-    private void createNight(){
-        gameObjects().addGameObject(Night.create(
-                this.windowDimensions, Constants.SUN_CYCLE_LENGTH), Layer.UI);
+
+    /**
+     * Creates the rain particle system, tinted by the ambient light, and adds it to the
+     * background layer.
+     */
+    private void createRain(){
+        this.rainParticles = new RainParticleSystem(this.windowDimensions, Constants.RAINDROP_CAPACITY);
+        timeOfDay.addAmbientLightListener(rainParticles);
+        gameObjects().addGameObject(rainParticles, Layer.BACKGROUND);
+    }
+
+    /**
+     * Creates the snowfall under the cloud, tinted by the ambient light, and adds it to the
+     * background layer.
+     */
+    private void createSnowfall(){
+        this.snowfall = new Snowfall(this.windowDimensions, camera(), this.cloudSystem,
+                this.terrain.getHeightmapCache(), Constants.SNOW_CAPACITY,
+                Constants.SNOW_INITIAL_PARTICLES);
+        timeOfDay.addAmbientLightListener(snowfall);
+        gameObjects().addGameObject(snowfall, Layer.BACKGROUND);
     }
 
-    /** Spawns a cloud, animates its movement, and handles cloud lifecycle. */
-    private void spawnCloud(){
-        this.currentCloud.create();
-        List<Block> cloudBlocks = this.currentCloud.getBlocks();
-        for (Block block : cloudBlocks) {
-            gameObjects().addGameObject(block, Layer.BACKGROUND);
+    /** Adds the pool of clouds to the background layer once. */
+    private void addClouds(){
+        for (Cloud cloud : cloudSystem.getClouds()) {
+            gameObjects().addGameObject(cloud, Layer.BACKGROUND);
         }
+    }
 
-        GameObject cloudOwner = new GameObject(Vector2.ZERO, Vector2.ZERO, null);
-        gameObjects().addGameObject(cloudOwner, Layer.BACKGROUND);
-        this.currentCloud.startTransition(cloudOwner, Constants.CLOUD_ANIMATION_DURATION,
-                ()-> {
-                    for(Block block : this.currentCloud.getBlocks()) {
-                        removeGameObject(block, Layer.BACKGROUND);
-                    }
-                    removeGameObject(cloudOwner, Layer.BACKGROUND);
-                    spawnCloud();
-                }
-                );
-    }
-
-    /** Creates the sun and sun halo objects and adds them to the background layer. */
-    private void spawnSunWithHalo(){
-        GameObject sun = Sun.create(this.windowDimensions, Constants.SUN_CYCLE_LENGTH);
+    /**
+     * Creates the sky, sun and sun halo, and the time of day that drives them all, tinting the
+     * clouds by its ambient light. The sun and its halo are added to the background layer.
+     */
+    private void createDayNightCycle(){
+        GameObject sky = createSky();
+        GameObject sun = Sun.create(this.windowDimensions);
         gameObjects().addGameObject(sun, Layer.BACKGROUND);
         GameObject sunHalo = SunHalo.create(sun);
         gameObjects().addGameObject(sunHalo, Layer.BACKGROUND);
+        this.timeOfDay = new TimeOfDay(this.windowDimensions, Constants.SUN_CYCLE_LENGTH,
+                sky, sun, sunHalo);
+        timeOfDay.addAmbientLightListener(cloudSystem);
     }
 
     /** Adds the energy display UI elements to the game. */
@@ -125,31 +157,84 @@ public class PepseGameManager extends GameManager implements GameObjectManager{
 
         this.terrain = new Terrain(windowController.getWindowDimensions(), seed);
         Flora flora = new Flora(terrain, seed);
+        this.canopySway = flora.getTreeGenerator().getCanopySway();
+        this.fruitIndex = flora.getTreeGenerator().getFruitIndex();
+        this.eatenFruit = flora.getTreeGenerator().getEatenFruit();
+        canopySway.setLodThresholds(Constants.SWAY_FULL_RATE_DISTANCE,
+                windowDimensions.x() / 2 + Constants.SWAY_VISIBLE_MARGIN,
+                Constants.SWAY_REDUCED_RATE_INTERVAL);
 
-        createSky();
-        createNight();
-        spawnSunWithHalo();
+        this.cloudSystem = new CloudSystem(this.windowDimensions, Constants.CLOUD_COUNT);
+        createDayNightCycle();
 
         addEnergyDisplay();
         createAvatar();
         gameObjects().layers().shouldLayersCollide(Constants.MAIN_LAYER,
                 Layer.STATIC_OBJECTS, true);
-        Vector2 cameraPosition = avatar.getCenter().subtract(windowDimensions.mult(0.5f));
-        this.currentCloud = new Cloud(this.windowDimensions, cameraPosition);
-        spawnCloud();
+        gameObjects().layers().shouldLayersCollide(Constants.TERRAIN_FILL_LAYER,
+                Constants.TERRAIN_FILL_LAYER, false);
+        gameObjects().layers().shouldLayersCollide(Constants.FRUIT_LAYER,
+                Constants.FRUIT_LAYER, false);
+        gameObjects().layers().shouldLayersCollide(Constants.MAIN_LAYER,
+                Constants.FRUIT_LAYER, false);
+        addClouds();
+        createRain();
+        createSnowfall();
         this.proceduralGenerationManager = new ProceduralGenerationManager(this.terrain, flora,
                 this, this.avatar, windowController.getWindowDimensions());
     }
 
-    /** Updates the game state, procedural generation, and energy display. */
+    /**
+     * Updates the game state, delayed events, time of day, clouds, procedural generation,
+     * fruit eating, canopy animation, and the energy display when the energy changed.
+     */
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
 
+        timerWheel.advance(deltaTime);
+        timeOfDay.update(deltaTime);
+        cloudSystem.update(deltaTime);
+        adjustSnowfall();
+
         proceduralGenerationManager.update(deltaTime);
+        consumeTouchedFruits();
+        canopySway.update(deltaTime, avatar.getCenter().x());
 
         double currentEnergy = avatar.getCurrentEnergy();
-        energyDisplay.onEnergyChanged(currentEnergy);
+        if (currentEnergy != displayedEnergy) {
+            displayedEnergy = currentEnergy;
+            energyDisplay.onEnergyChanged(currentEnergy);
+        }
+    }
+
+    /** Adds or removes snowflakes once per press of a snow key. */
+    private void adjustSnowfall() {
+        boolean more = inputListener.isKeyPressed(Constants.SNOW_MORE_KEY);
+        boolean less = inputListener.isKeyPressed(Constants.SNOW_LESS_KEY);
+        if ((more || less) && !snowKeyHeld) {
+            int step = more ? Constants.SNOW_PARTICLE_STEP : -Constants.SNOW_PARTICLE_STEP;
+            snowfall.setParticleCount(snowfall.getParticleCount() + step);
+        }
+        snowKeyHeld = more || less;
+    }
+
+    /**
+     * Lets the avatar eat the fruits overlapping it, found through the fruit index, and schedules
+     * each to grow back.
+     */
+    private void consumeTouchedFruits() {
+        fruitIndex.findOverlapping(avatar.getTopLeftCorner(), avatar.getDimensions(), touchedFruits);
+        for (int i = 0; i < touchedFruits.size(); i++) {
+            Fruit fruit = touchedFruits.get(i);
+            fruitIndex.remove(fruit);
+            canopySway.remove(fruit);
+            eatenFruit.markEaten(fruit.getChunk(), fruit.getSlot());
+            timerWheel.schedule(Constants.FRUIT_REGROWTH_TIME, fruitRegrowthEvent,
+                    ((long) fruit.getChunk() << Integer.SIZE) | (fruit.getSlot() & 0xFFFFFFFFL));
+            avatar.consumeFruit(fruit);
+        }
+        touchedFruits.clear();
     }
 
     /** Adds a game object to the specified layer. */
@@ -164,15 +249,25 @@ public class PepseGameManager extends GameManager implements GameObjectManager{
         gameObjects().removeGameObject(gameObject, layer);
     }
 
-    /** Generates raindrops and schedules their removal after animation. */
+    /**
+     * Regrows an eaten fruit, showing it again right away if its chunk is loaded.
+     *
+     * @param payload The chunk of the fruit in the high half, its slot in the low half.
+     */
+    private void regrowFruit(long payload) {
+        int chunk = (int) (payload >> Integer.SIZE);
+        int slot = (int) payload;
+        eatenFruit.markRegrown(chunk, slot);
+        proceduralGenerationManager.regrowFruit(chunk, slot);
+    }
+
+    /**
+     * Generates raindrops under the cloud nearest the avatar; the rain particle system fades and
+     * recycles them.
+     */
     public void generateRaindrops() {
-        RaindropGenerator raindropGenerator = new RaindropGenerator();
-        List<GameObject> raindrops = raindropGenerator.generateGrid(this.currentCloud.getCenter());
-        for (GameObject raindrop : raindrops) {
-            new ScheduledTask(raindrop, Constants.RAINDROP_TRANSITION_TIME, false,
-                    ()->gameObjects().removeGameObject(raindrop, Layer.BACKGROUND));
-            gameObjects().addGameObject(raindrop, Layer.BACKGROUND);
-        }
+        Cloud cloud = cloudSystem.nearestCloud(windowDimensions.x() / 2);
+        raindropGenerator.generateGrid(cloud.getCenter(), rainParticles);
     }
 
     /** Main method to run the game. */
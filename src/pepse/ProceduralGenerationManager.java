@@ -3,28 +3,73 @@ package pepse;
 import danogl.GameObject;
 import danogl.util.Vector2;
 import danogl.collisions.Layer;
+import pepse.util.ChunkRandom;
 import pepse.util.Constants;
-import pepse.world.Block;
 import pepse.world.Terrain;
+import pepse.world.TerrainChunkBaker;
+import pepse.world.TerrainColumn;
 import pepse.world.trees.*;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Manages procedural generation of terrain and trees based on the camera's position.
+ * Chunk content is generated on a pool of worker threads; the game thread only adds finished
+ * content to the world. Every object placed in the world is recorded in the Chunk it was
+ * generated for, so only chunks that leave the visible range are touched when unloading.
+ * Chunks are loaded within a load radius of the visible range and unloaded only past a larger
+ * unload radius, so walking back and forth across a chunk edge doesn't regenerate the chunk.
+ * Optionally, chunks ahead of the followed object in its direction of travel are prefetched:
+ * generated in advance and held ready, but not added to the world until they come into view.
  */
 public class ProceduralGenerationManager {
+    private static final long NANOS_PER_MICRO = 1000;
     private final Terrain terrain;
     private final Flora flora;
     private final GameObject toFollow;
     private final Vector2 windowDimensions;
     private final GameObjectManager objectManager;
-    private final Set<Integer> genetatedChunks = new HashSet<>();
-    private final List<GameObject> activeBlocks = new ArrayList<>();
-    private final List<GameObject> activeTrees = new ArrayList<>();
+    private final Map<Integer, Chunk> loadedChunks = new HashMap<>();
+    private final Map<Integer, Chunk> prefetchedChunks = new HashMap<>();
+    private final TerrainChunkBaker chunkBaker = new TerrainChunkBaker();
+    private final CanopyExpander canopyExpander;
+    private final ExecutorService workers = new ForkJoinPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    private final Queue<Chunk> generatedChunks = new ConcurrentLinkedQueue<>();
+    private volatile boolean bakeTerrain = true;
+    private int visibleMinChunk = 0;
+    private int visibleMaxChunk = -1;
+    private int loadMinChunk = 0;
+    private int loadMaxChunk = -1;
+    private int loadedMinChunk = 0;
+    private int loadedMaxChunk = -1;
+    private int loadRadius = Constants.CHUNK_LOAD_RADIUS;
+    private int unloadRadius = Constants.CHUNK_UNLOAD_RADIUS;
+    private long chunkGenerations = 0;
+    private long chunkUnloads = 0;
+    private final List<Chunk> attachingChunks = new ArrayList<>();
+    private final List<Chunk> detachingChunks = new ArrayList<>();
+    private int focusChunk = 0;
+    private final Comparator<Chunk> byDistanceToFocus =
+            Comparator.comparingInt(chunk -> Math.abs(chunk.getIndex() - focusChunk));
+    private int budgetObjects = Constants.MATERIALIZATION_OBJECTS_PER_FRAME;
+    private long budgetMicros = Constants.MATERIALIZATION_MICROS_PER_FRAME;
+    private long materializedObjects = 0;
+    private int prefetchLookahead = 0;
+    private int prefetchDirection = 0;
+    private long prefetchHits = 0;
+    private long prefetchMisses = 0;
 
 
     /**
@@ -32,7 +77,8 @@ public class ProceduralGenerationManager {
      *
      * @param terrain          terrain object for generating terrain
      * @param flora            flora object for generating trees
-     * @param camera           camera object to get coordinates
+     * @param objectManager    manager used to add and remove the generated objects
+     * @param toFollow         object whose position decides which chunks are generated
      * @param windowDimensions size of window
      */
     public ProceduralGenerationManager(Terrain terrain, Flora flora, GameObjectManager objectManager,
@@ -42,11 +88,177 @@ public class ProceduralGenerationManager {
         this.toFollow = toFollow;
         this.windowDimensions = windowDimensions;
         this.objectManager = objectManager;
+        this.canopyExpander = new CanopyExpander(flora.getTreeGenerator(), objectManager);
+    }
+
+    /**
+     * Sets whether each new chunk of terrain is rasterized into a single image.
+     *
+     * @param bakeTerrain True to bake new chunks, false to draw them column by column.
+     */
+    public void setTerrainBaking(boolean bakeTerrain) {
+        this.bakeTerrain = bakeTerrain;
+    }
+
+    /**
+     * Sets how far around the visible range chunks are loaded and kept.
+     * A chunk is loaded once it is within loadRadius chunks of the visible range, and unloaded
+     * only once it is more than unloadRadius chunks away, so walking back and forth across a
+     * chunk edge doesn't regenerate the chunk.
+     *
+     * @param loadRadius   The number of chunks past each side of the visible range to load.
+     * @param unloadRadius The number of chunks past each side of the visible range to keep loaded,
+     *                     raised to loadRadius if smaller.
+     */
+    public void setChunkRadii(int loadRadius, int unloadRadius) {
+        this.loadRadius = Math.max(0, loadRadius);
+        this.unloadRadius = Math.max(this.loadRadius, unloadRadius);
+        this.visibleMaxChunk = this.visibleMinChunk - 1; // re-evaluate the loaded range next update
+    }
+
+    /**
+     * Returns the number of chunk generations started, including prefetched chunks.
+     *
+     * @return The number of chunk generation events.
+     */
+    public long getChunkGenerationCount() {
+        return chunkGenerations;
+    }
+
+    /**
+     * Returns the number of chunks unloaded or discarded, including dropped prefetched chunks.
+     *
+     * @return The number of chunk unload events.
+     */
+    public long getChunkUnloadCount() {
+        return chunkUnloads;
+    }
+
+    /**
+     * Sets how many chunks ahead of the visible range, in the followed object's direction of
+     * travel, are generated in advance. Prefetched chunks are held ready but not added to the world.
+     *
+     * @param lookaheadChunks The number of chunks to prefetch, or 0 to disable prefetching.
+     */
+    public void setPrefetchLookahead(int lookaheadChunks) {
+        this.prefetchLookahead = Math.max(0, lookaheadChunks);
+        this.prefetchDirection = 0; // re-evaluate the prefetched range on the next update
+    }
+
+    /**
+     * Returns the number of chunks that, while prefetching was enabled, came into view already
+     * prefetched and successfully generated.
+     *
+     * @return The number of prefetch hits.
+     */
+    public long getPrefetchHits() {
+        return prefetchHits;
+    }
+
+    /**
+     * Returns the number of chunks that, while prefetching was enabled, came into view without
+     * a prefetched and successfully generated chunk to take.
+     *
+     * @return The number of prefetch misses.
+     */
+    public long getPrefetchMisses() {
+        return prefetchMisses;
+    }
+
+    /**
+     * Sets how much chunk content is added to or removed from the world per frame. The chunk
+     * under the followed object is always attached in full; everything else is attached nearest
+     * chunk first and carried over to later frames once the budget is spent.
+     *
+     * @param objectsPerFrame The maximal number of objects attached or detached per frame,
+     *                        or 0 for no limit.
+     * @param microsPerFrame  The maximal time in microseconds spent attaching or detaching per
+     *                        frame, or 0 for no limit.
+     */
+    public void setMaterializationBudget(int objectsPerFrame, long microsPerFrame) {
+        this.budgetObjects = Math.max(0, objectsPerFrame);
+        this.budgetMicros = Math.max(0, microsPerFrame);
+    }
+
+    /**
+     * Returns the total number of chunk objects added to the world.
+     *
+     * @return The number of objects attached since the game started.
+     */
+    public long getMaterializedObjectCount() {
+        return materializedObjects;
+    }
+
+    /**
+     * Returns the number of chunks currently loaded, including chunks still being generated.
+     *
+     * @return The number of loaded chunks.
+     */
+    public int getLoadedChunkCount() {
+        return loadedChunks.size();
+    }
+
+    /**
+     * Returns the expander that turns the baked canopies near the followed object into
+     * individual leaves and fruits.
+     *
+     * @return The canopy expander.
+     */
+    public CanopyExpander getCanopyExpander() {
+        return canopyExpander;
+    }
+
+    /**
+     * Grows an eaten fruit back into the world if its chunk is loaded: on its tree's canopy,
+     * expanded or collapsed, or on its tree with individual leaves and fruits. A chunk that
+     * isn't loaded shows the fruit the next time it is generated.
+     *
+     * @param chunkIndex The chunk of the fruit.
+     * @param slot       The slot of the fruit within its chunk.
+     */
+    public void regrowFruit(int chunkIndex, int slot) {
+        canopyExpander.regrowFruit(chunkIndex, slot);
+        Chunk chunk = loadedChunks.get(chunkIndex);
+        if (chunk == null || !chunk.hasContent()) {
+            return;
+        }
+        TreeGenerator treeGenerator = flora.getTreeGenerator();
+        for (Tree tree : chunk.getGeneration().join().getTrees()) {
+            if (tree.getCanopy() != null || !tree.hasFruitSlot(slot)) {
+                continue;
+            }
+            for (GameObject gameObject : tree.getFruits()) {
+                Fruit fruit = (Fruit) gameObject;
+                if (fruit.getSlot() == slot) {
+                    // Still recorded in the chunk, only removed from the world when it was eaten
+                    objectManager.addGameObject(fruit, Constants.FRUIT_LAYER);
+                    treeGenerator.getCanopySway().add(fruit);
+                    treeGenerator.getFruitIndex().add(fruit);
+                    return;
+                }
+            }
+            // The tree was generated while the fruit was eaten
+            Fruit fruit = treeGenerator.createRegrownFruit(tree, chunkIndex, slot);
+            if (fruit != null) {
+                tree.getFruits().add(fruit);
+                chunk.schedule(fruit, Constants.FRUIT_LAYER, treeGenerator.getFruitPool(),
+                        treeGenerator.getCanopySway().andThen(treeGenerator.getFruitIndex()));
+                if (!attachingChunks.contains(chunk)) {
+                    attachingChunks.add(chunk);
+                }
+            }
+            return;
+        }
     }
 
     /**
      * Updates the procedural generation logic.
-     * Removes objects outside the visible range and generates new terrain and trees within bounds.
+     * Unloads the chunks that left the visible range, requests generation of the chunks that
+     * entered it, and adds the content of the chunks that finished generating to the world
+     * within the per-frame materialization budget. Finally, expands and collapses the baked tree
+     * canopies by their distance from the followed object.
+     * A frame in which the visible range of chunks didn't change does no per-object work, unless
+     * the followed object moved far enough for the canopies near it to be checked again.
      *
      * @param deltaTime Time since the last update (unused here but provided for consistency).
      */
@@ -56,62 +268,320 @@ public class ProceduralGenerationManager {
 
         int minChunk = (int) Math.floor((centerX - windowDimensions.x() / Constants.HALF) / chunkSize);
         int maxChunk = (int) Math.ceil((centerX + windowDimensions.x() / Constants.HALF) / chunkSize);
-        activeBlocks.removeIf(block -> {
-            if (!isWithinBounds(block, minChunk, maxChunk, chunkSize)) {
-                objectManager.removeGameObject(block, Layer.STATIC_OBJECTS);
-                return true;
+        boolean rangeChanged = minChunk != visibleMinChunk || maxChunk != visibleMaxChunk;
+        if (rangeChanged) {
+            updateLoadedRange(minChunk, maxChunk, chunkSize);
+            visibleMinChunk = minChunk;
+            visibleMaxChunk = maxChunk;
+        }
+        int direction = (int) Math.signum(toFollow.getVelocity().x());
+        if (prefetchLookahead > 0 && direction != 0 && (rangeChanged || direction != prefetchDirection)) {
+            prefetchAhead(direction, chunkSize);
+            prefetchDirection = direction;
+        }
+
+        Chunk chunk;
+        while ((chunk = generatedChunks.poll()) != null) {
+            if (loadedChunks.get(chunk.getIndex()) == chunk && !chunk.hasContent()
+                    && !chunk.getGeneration().isCompletedExceptionally()) {
+                scheduleContent(chunk, chunk.getGeneration().join());
             }
-            return false;
-        });
-        activeTrees.removeIf(tree -> {
-            if (!isWithinBounds(tree, minChunk, maxChunk, chunkSize)) {
-                objectManager.removeGameObject(tree, Layer.STATIC_OBJECTS);
+        }
+
+        // The followed object must never stand over a chunk that isn't there yet
+        focusChunk = (int) Math.floor(centerX / chunkSize);
+        Chunk underFollowed = loadedChunks.get(focusChunk);
+        if (underFollowed != null) {
+            if (!underFollowed.hasContent()) {
+                ChunkContent content = awaitGeneration(underFollowed);
+                if (content != null) {
+                    scheduleContent(underFollowed, content);
+                } else {
+                    // The generation failed: drop the chunk and generate it again
+                    loadedChunks.remove(focusChunk);
+                    discardChunk(underFollowed);
+                    loadChunk(focusChunk, chunkSize);
+                    underFollowed = null;
+                }
+            }
+            while (underFollowed != null && underFollowed.attachNext(objectManager)) {
+                materializedObjects++;
+            }
+        }
+        materializeWithinBudget();
+        canopyExpander.update(centerX);
+    }
+
+    /**
+     * Waits for the generation of a chunk to finish.
+     *
+     * @param chunk The chunk record.
+     * @return The generated content of the chunk, or null if its generation failed.
+     */
+    private static ChunkContent awaitGeneration(Chunk chunk) {
+        try {
+            return chunk.getGeneration().join();
+        } catch (CompletionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Detaches the objects of unloaded chunks within the share of the per-frame budget reserved
+     * for them, then attaches the scheduled objects of the loaded chunks, nearest chunk to the
+     * followed object first, and spends whatever budget is left on detaching.
+     * Whatever is left over is carried over to the next frames.
+     */
+    private void materializeWithinBudget() {
+        long start = System.nanoTime();
+        long deadline = budgetMicros > 0 ? start + budgetMicros * NANOS_PER_MICRO : Long.MAX_VALUE;
+        int remaining = budgetObjects > 0 ? budgetObjects : Integer.MAX_VALUE;
+
+        // Detaching goes first, so a steady stream of chunks to attach can't starve it
+        long detachDeadline = budgetMicros > 0 ? start + (long) (budgetMicros * NANOS_PER_MICRO
+                * Constants.MATERIALIZATION_DETACH_SHARE) : Long.MAX_VALUE;
+        remaining -= detachWithin(
+                (int) Math.ceil(remaining * Constants.MATERIALIZATION_DETACH_SHARE), detachDeadline);
+
+        attachingChunks.removeIf(chunk ->
+                !chunk.hasPendingAttach() || loadedChunks.get(chunk.getIndex()) != chunk);
+        attachingChunks.sort(byDistanceToFocus);
+        for (int i = 0; i < attachingChunks.size() && remaining > 0; i++) {
+            Chunk chunk = attachingChunks.get(i);
+            while (remaining > 0 && System.nanoTime() < deadline && chunk.attachNext(objectManager)) {
+                materializedObjects++;
+                remaining--;
+            }
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+        detachWithin(remaining, deadline);
+    }
+
+    /**
+     * Detaches the objects of unloaded chunks, most recently unloaded chunk first.
+     *
+     * @param limit    The maximal number of objects to detach.
+     * @param deadline The time, in nanoseconds, at which to stop.
+     * @return The number of objects detached.
+     */
+    private int detachWithin(int limit, long deadline) {
+        int detached = 0;
+        while (!detachingChunks.isEmpty() && detached < limit && System.nanoTime() < deadline) {
+            Chunk chunk = detachingChunks.get(detachingChunks.size() - 1);
+            if (chunk.detachNext(objectManager)) {
+                detached++;
+            } else {
+                detachingChunks.remove(detachingChunks.size() - 1);
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * Unloads the loaded chunks that are past the unload radius of the new visible range, and
+     * loads the chunks within its load radius.
+     *
+     * @param minChunk  The minimum visible chunk index.
+     * @param maxChunk  The maximum visible chunk index.
+     * @param chunkSize The size of a single chunk.
+     */
+    private void updateLoadedRange(int minChunk, int maxChunk, int chunkSize) {
+        int keepMin = minChunk - unloadRadius;
+        int keepMax = maxChunk + unloadRadius;
+        for (int chunk = loadedMinChunk; chunk <= loadedMaxChunk; chunk++) {
+            if (chunk < keepMin || chunk > keepMax) {
+                unloadChunk(chunk);
+            }
+        }
+
+        loadMinChunk = minChunk - loadRadius;
+        loadMaxChunk = maxChunk + loadRadius;
+        for (int chunk = loadMinChunk; chunk <= loadMaxChunk; chunk++) {
+            if (!loadedChunks.containsKey(chunk)) {
+                loadChunk(chunk, chunkSize);
+            }
+        }
+        if (loadedChunks.size() == loadMaxChunk - loadMinChunk + 1) {
+            loadedMinChunk = loadMinChunk;
+            loadedMaxChunk = loadMaxChunk;
+        } else {
+            loadedMinChunk = Math.min(Math.max(loadedMinChunk, keepMin), loadMinChunk);
+            loadedMaxChunk = Math.max(Math.min(loadedMaxChunk, keepMax), loadMaxChunk);
+        }
+    }
+
+    /**
+     * Records a chunk that came into view as loaded, taking it from the prefetched chunks if it
+     * was prefetched, or starting its generation otherwise.
+     *
+     * @param index     The index of the chunk.
+     * @param chunkSize The size of a single chunk.
+     */
+    private void loadChunk(int index, int chunkSize) {
+        // The objects of an earlier unload of the same chunk must leave before the new ones come
+        for (int i = detachingChunks.size() - 1; i >= 0; i--) {
+            Chunk stale = detachingChunks.get(i);
+            if (stale.getIndex() == index) {
+                stale.detachAll(objectManager);
+                detachingChunks.remove(i);
+            }
+        }
+        Chunk chunk = prefetchedChunks.remove(index);
+        boolean prefetched = chunk != null;
+        if (!prefetched) {
+            chunk = requestChunk(index, chunkSize);
+        }
+        loadedChunks.put(index, chunk);
+        boolean generated = prefetched && chunk.getGeneration().isDone()
+                && !chunk.getGeneration().isCompletedExceptionally();
+        if (generated) {
+            generatedChunks.add(chunk); // its completion was skipped while it was only prefetched
+        }
+        if (prefetchLookahead > 0) {
+            if (generated) {
+                prefetchHits++;
+            } else {
+                prefetchMisses++;
+            }
+        }
+    }
+
+    /**
+     * Starts generating the chunks ahead of the visible range in the direction of travel, and
+     * drops the prefetched chunks that are no longer ahead of it.
+     *
+     * @param direction The sign of the followed object's horizontal velocity.
+     * @param chunkSize The size of a single chunk.
+     */
+    private void prefetchAhead(int direction, int chunkSize) {
+        int first = direction > 0 ? loadMaxChunk + 1 : loadMinChunk - prefetchLookahead;
+        int last = first + prefetchLookahead - 1;
+        prefetchedChunks.values().removeIf(chunk -> {
+            if (chunk.getIndex() < first || chunk.getIndex() > last) {
+                discardChunk(chunk);
                 return true;
             }
             return false;
         });
-        for(int chunk = minChunk; chunk <= maxChunk; chunk++) {
-            if(!genetatedChunks.contains(chunk)) {
-                int minX = chunk * chunkSize;
-                int maxX = minX + chunkSize;
-
-                List<Block> generatedTerrain = terrain.createInRange(minX, maxX);
-                for (Block block : generatedTerrain) {
-                    objectManager.addGameObject(block, Layer.STATIC_OBJECTS);
-                    activeBlocks.add(block);
-                }
-                List<Tree> generatedFlora = flora.createInRange(minX, maxX);
-                for (Tree tree : generatedFlora) {
-                    GameObject trunk = tree.getTrunk();
-                    objectManager.addGameObject(trunk, Layer.STATIC_OBJECTS);
-                    activeTrees.add(trunk);
-                    for (GameObject leaf : tree.getLeaves()) {
-                        objectManager.addGameObject(leaf, Layer.FOREGROUND);
-                        activeTrees.add(leaf);
-                    }
-                    for (GameObject fruit : tree.getFruits()) {
-                        objectManager.addGameObject(fruit, Layer.STATIC_OBJECTS);
-                        activeTrees.add(fruit);
-                    }
-                }
-                genetatedChunks.add(chunk);
+        for (int index = first; index <= last; index++) {
+            if (!prefetchedChunks.containsKey(index) && !loadedChunks.containsKey(index)) {
+                prefetchedChunks.put(index, requestChunk(index, chunkSize));
+            }
+        }
+    }
+
+    /**
+     * Starts generating a chunk on the worker pool.
+     *
+     * @param index     The index of the chunk.
+     * @param chunkSize The size of a single chunk.
+     * @return The record of the chunk.
+     */
+    private Chunk requestChunk(int index, int chunkSize) {
+        int minX = index * chunkSize;
+        int maxX = minX + chunkSize;
+        CompletableFuture<ChunkContent> generation =
+                CompletableFuture.supplyAsync(() -> generateChunk(minX, maxX), workers);
+        Chunk chunk = new Chunk(index, generation);
+        chunkGenerations++;
+        generation.whenComplete((content, error) -> generatedChunks.add(chunk));
+        return chunk;
+    }
+
+    /**
+     * Generates the terrain and trees of a chunk without adding them to the world.
+     * Runs on a worker thread. Everything random is drawn from the chunk's own streams, so the
+     * same chunk is generated the same way every time.
+     *
+     * @param minX The x-coordinate of the chunk's left edge.
+     * @param maxX The x-coordinate of the chunk's right edge.
+     * @return The generated content of the chunk.
+     */
+    private ChunkContent generateChunk(int minX, int maxX) {
+        List<TerrainColumn> generatedTerrain = terrain.createInRange(minX, maxX);
+        GameObject terrainSprite = null;
+        if (bakeTerrain) {
+            int[] groundHeights = new int[generatedTerrain.size()];
+            for (int i = 0; i < generatedTerrain.size(); i++) {
+                groundHeights[i] = (int) generatedTerrain.get(i).getSurface().getTopLeftCorner().y();
             }
+            terrainSprite = chunkBaker.bake(minX, groundHeights, ChunkRandom.forChunkAt(
+                    terrain.getSeed(), minX, ChunkRandom.Purpose.TERRAIN_SPRITE));
         }
-        genetatedChunks.removeIf(chunk -> chunk < minChunk || chunk > maxChunk);
+        List<Tree> generatedFlora = flora.createInRange(minX, maxX);
+        return new ChunkContent(generatedTerrain, terrainSprite, generatedFlora);
     }
 
     /**
-     * Checks if a game object is within the visible range of chunks.
+     * Schedules the generated content of a chunk to be added to the world, terrain first.
+     * Runs on the game thread. When the terrain was baked, the surfaces are kept only as
+     * invisible colliders.
      *
-     * @param gameObject The game object to check.
-     * @param minChunk   The minimum visible chunk index.
-     * @param maxChunk   The maximum visible chunk index.
-     * @param chunkSize  The size of a single chunk.
-     * @return True if the game object is within bounds, false otherwise.
+     * @param chunk   The chunk record.
+     * @param content The generated content of the chunk.
      */
-    private boolean isWithinBounds(GameObject gameObject, int minChunk, int maxChunk, int chunkSize) {
-        float x = gameObject.getCenter().x();
-        int chunk = (int) Math.floor(x / chunkSize);
-        return chunk >= minChunk && chunk <= maxChunk;
+    private void scheduleContent(Chunk chunk, ChunkContent content) {
+        GameObject terrainSprite = content.getTerrainSprite();
+        if (terrainSprite != null) {
+            chunk.schedule(terrainSprite, Constants.TERRAIN_FILL_LAYER, null);
+        }
+        for (TerrainColumn column : content.getTerrain()) {
+            if (terrainSprite != null) {
+                column.getSurface().renderer().setRenderable(null);
+                terrain.getFillPool().release(column.getFill());
+            } else {
+                chunk.schedule(column.getFill(), Constants.TERRAIN_FILL_LAYER, terrain.getFillPool());
+            }
+            chunk.schedule(column.getSurface(), Layer.STATIC_OBJECTS, terrain.getSurfacePool());
+        }
+
+        TreeGenerator treeGenerator = flora.getTreeGenerator();
+        CanopySway canopySway = treeGenerator.getCanopySway();
+        AttachmentListener fruitListener = canopySway.andThen(treeGenerator.getFruitIndex());
+        for (Tree tree : content.getTrees()) {
+            chunk.schedule(tree.getTrunk(), Layer.STATIC_OBJECTS, treeGenerator.getTrunkPool());
+            if (tree.getCanopy() != null) {
+                chunk.schedule(tree.getCanopy(), Layer.FOREGROUND, null, canopyExpander);
+            }
+            for (GameObject leaf : tree.getLeaves()) {
+                chunk.schedule(leaf, Layer.FOREGROUND, treeGenerator.getLeafPool(), canopySway);
+            }
+            for (GameObject fruit : tree.getFruits()) {
+                chunk.schedule(fruit, Constants.FRUIT_LAYER, treeGenerator.getFruitPool(), fruitListener);
+            }
+        }
+        chunk.markContentScheduled();
+        attachingChunks.add(chunk);
+    }
+
+    /**
+     * Cancels the generation of a chunk and queues its objects to be removed from the world and
+     * returned to their pools.
+     *
+     * @param chunk The chunk record.
+     */
+    private void discardChunk(Chunk chunk) {
+        chunk.cancel();
+        if (!chunk.hasContent() && chunk.getGeneration().isDone()
+                && !chunk.getGeneration().isCompletedExceptionally()) {
+            // Generated but never scheduled: schedule it so detaching returns it to the pools
+            scheduleContent(chunk, chunk.getGeneration().join());
+        }
+        detachingChunks.add(chunk);
+        chunkUnloads++;
+    }
+
+    /**
+     * Unloads a loaded chunk.
+     *
+     * @param index The index of the chunk.
+     */
+    private void unloadChunk(int index) {
+        Chunk chunk = loadedChunks.remove(index);
+        if (chunk != null) {
+            discardChunk(chunk);
+        }
     }
 }
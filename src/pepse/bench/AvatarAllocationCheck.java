@@ -0,0 +1,293 @@
+package pepse.bench;
+
+import danogl.GameObject;
+import danogl.gui.ImageReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.world.Avatar;
+import pepse.world.EnergyCallback;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+
+/**
+ * Checks that updating the avatar allocates nothing beyond what the engine itself allocates for
+ * the calls the avatar makes.
+ * Avatars are driven through cycles of idle, running and jumping frames by a scripted input
+ * listener, and the bytes allocated by the thread are compared with those of a baseline game
+ * object that makes exactly the same engine calls on the same frames: the same super.update,
+ * reading the three keys and the velocity, flipping and switching its renderable, notifying the
+ * energy callback and setting the velocity in one call. Its energy is a plain field changed by the
+ * same amounts, standing in for the energy handler. Between frames on the ground, both have their
+ * vertical velocity zeroed, as the collision with the terrain would. Every avatar jumps only once,
+ * as nothing here lands it again, so each cycle takes a fresh avatar built before the measurement.
+ * The check runs in a JVM with escape analysis turned off, restarting itself in one if needed, so
+ * what is measured is what the code allocates, not what the compiler happened to optimize away in
+ * one of the two and not the other.
+ * Prints the bytes per frame of both and exits with an error if the avatar allocated more per
+ * frame than the baseline, by less than the size of the smallest object.
+ */
+public class AvatarAllocationCheck {
+    private static final int CYCLES = 60;
+    private static final int IDLE_FRAMES = 100;
+    private static final int RUN_FRAMES = 120;
+    private static final int JUMP_FRAMES = 40;
+    private static final int FRAMES = CYCLES * (IDLE_FRAMES + RUN_FRAMES + JUMP_FRAMES);
+    private static final int WARMUP_ROUNDS = 5;
+    private static final float DELTA_TIME = 1f / Constants.TARGET_FRAMERATE;
+    private static final double TOLERANCE_BYTES_PER_FRAME = 8;
+    private static final String NO_ESCAPE_ANALYSIS = "-XX:-DoEscapeAnalysis";
+    private static final boolean[] PRESSED = new boolean[256];
+    private static final EnergyCallback ENERGY_CALLBACK = new EnergyCallback() {
+        @Override
+        public void onEnergyChanged(double currentEnergy) {
+        }
+
+        @Override
+        public void onFruitConsumed(GameObject fruit) {
+        }
+    };
+
+    /**
+     * Runs the check.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (!ManagementFactory.getRuntimeMXBean().getInputArguments().contains(NO_ESCAPE_ANALYSIS)) {
+            Process check = new ProcessBuilder(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    NO_ESCAPE_ANALYSIS, "-cp", System.getProperty("java.class.path"),
+                    AvatarAllocationCheck.class.getName()).inheritIO().start();
+            System.exit(check.waitFor());
+        }
+        UserInputListener input = scriptedInput();
+        ImageRenderable blank = new ImageRenderable(
+                new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+        ImageReader imageReader = new ImageReader(null) {
+            @Override
+            public ImageRenderable readImage(String path, boolean isTopLeftPixelTransparent) {
+                return blank;
+            }
+        };
+        Avatar.setEnergyCallback(ENERGY_CALLBACK);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            drive(createAvatars(input, imageReader));
+            drive(createBaselines(input, blank));
+        }
+        GameObject[] avatars = createAvatars(input, imageReader);
+        GameObject[] baselines = createBaselines(input, blank);
+        long avatarBytes = drive(avatars);
+        long baselineBytes = drive(baselines);
+
+        long extra = avatarBytes - baselineBytes;
+        double extraPerFrame = extra / (double) FRAMES;
+        System.out.printf("frames %d%n", FRAMES);
+        System.out.printf("avatar   %10d bytes  %8.2f bytes/frame%n",
+                avatarBytes, avatarBytes / (double) FRAMES);
+        System.out.printf("baseline %10d bytes  %8.2f bytes/frame%n",
+                baselineBytes, baselineBytes / (double) FRAMES);
+        System.out.printf("extra    %10d bytes  %8.2f bytes/frame%n",
+                extra, extraPerFrame);
+        if (extraPerFrame > TOLERANCE_BYTES_PER_FRAME) {
+            System.out.println("FAIL: the avatar update allocates");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /**
+     * Builds one avatar per cycle.
+     *
+     * @param input       The scripted input listener.
+     * @param imageReader Reads every image as the same blank image.
+     * @return The avatars.
+     */
+    private static GameObject[] createAvatars(UserInputListener input, ImageReader imageReader) {
+        GameObject[] avatars = new GameObject[CYCLES];
+        for (int i = 0; i < CYCLES; i++) {
+            avatars[i] = new Avatar(Vector2.ZERO, input, imageReader);
+        }
+        return avatars;
+    }
+
+    /**
+     * Builds one baseline game object per cycle.
+     *
+     * @param input      The scripted input listener.
+     * @param renderable The renderable the baselines switch between.
+     * @return The baseline objects.
+     */
+    private static GameObject[] createBaselines(UserInputListener input, Renderable renderable) {
+        GameObject[] baselines = new GameObject[CYCLES];
+        for (int i = 0; i < CYCLES; i++) {
+            baselines[i] = new EngineBaseline(input, renderable);
+        }
+        return baselines;
+    }
+
+    /**
+     * Drives one object per cycle through idle, running and jumping frames.
+     *
+     * @param objects The objects, one per cycle.
+     * @return The bytes allocated by the thread meanwhile.
+     */
+    private static long drive(GameObject[] objects) {
+        long before = allocatedBytes();
+        for (GameObject object : objects) {
+            for (int frame = 0; frame < IDLE_FRAMES; frame++) {
+                land(object);
+                object.update(DELTA_TIME);
+            }
+            for (int frame = 0; frame < RUN_FRAMES; frame++) {
+                boolean left = frame < RUN_FRAMES / Constants.HALF;
+                PRESSED[Constants.MOVE_KEY_LEFT] = left;
+                PRESSED[Constants.MOVE_KEY_RIGHT] = !left;
+                land(object);
+                object.update(DELTA_TIME);
+            }
+            PRESSED[Constants.MOVE_KEY_LEFT] = false;
+            PRESSED[Constants.MOVE_KEY_RIGHT] = false;
+            for (int frame = 0; frame < JUMP_FRAMES; frame++) {
+                PRESSED[Constants.MOVE_KEY_UP] = frame == 0;
+                if (frame == 0) {
+                    land(object);
+                }
+                object.update(DELTA_TIME);
+            }
+            PRESSED[Constants.MOVE_KEY_UP] = false;
+        }
+        return allocatedBytes() - before;
+    }
+
+    /**
+     * Stops an object's fall, as standing on the terrain would.
+     *
+     * @param object The avatar or baseline object.
+     */
+    private static void land(GameObject object) {
+        object.transform().setVelocity(object.getVelocity().x(), 0);
+    }
+
+    /**
+     * Returns the number of bytes the current thread allocated so far.
+     *
+     * @return The allocated bytes.
+     */
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Creates an input listener that reports the keys of the script as pressed. Only key presses
+     * are answered; the avatar asks nothing else.
+     *
+     * @return The scripted input listener.
+     */
+    private static UserInputListener scriptedInput() {
+        return (UserInputListener) Proxy.newProxyInstance(UserInputListener.class.getClassLoader(),
+                new Class<?>[]{UserInputListener.class}, (proxy, method, args) ->
+                        method.getName().equals("isKeyPressed") ? PRESSED[(Integer) args[0]] : null);
+    }
+
+    /**
+     * A game object making the engine calls the avatar makes, on the same frames and with the same
+     * values, so whatever the engine and the scripted listener allocate is measured without the
+     * avatar's own logic.
+     */
+    private static class EngineBaseline extends GameObject {
+        private static final int IDLE = 0;
+        private static final int RUNNING = 1;
+        private static final int JUMPING = 2;
+        private final UserInputListener input;
+        private final Renderable renderable;
+        private double energy = Constants.MAX_ENERGY;
+        private double notifiedEnergy = Double.NaN;
+        private boolean airborne = false;
+        private int state = IDLE;
+
+        /**
+         * Constructor for the EngineBaseline class.
+         *
+         * @param input      The scripted input listener.
+         * @param renderable The renderable set whenever the avatar would switch animations.
+         */
+        EngineBaseline(UserInputListener input, Renderable renderable) {
+            super(Vector2.ZERO, new Vector2(Constants.AVATAR_WIDTH, Constants.AVATAR_HEIGHT), null);
+            this.input = input;
+            this.renderable = renderable;
+        }
+
+        /**
+         * Follows the avatar's update step for step, with a plain field as its energy and without
+         * ever standing on anything, as nothing collides here.
+         *
+         * @param deltaTime The time elapsed, in seconds, since the last frame.
+         */
+        @Override
+        public void update(float deltaTime) {
+            super.update(deltaTime);
+            boolean left = input.isKeyPressed(Constants.MOVE_KEY_LEFT);
+            boolean right = input.isKeyPressed(Constants.MOVE_KEY_RIGHT);
+            boolean jump = input.isKeyPressed(Constants.MOVE_KEY_UP);
+            Vector2 previousVelocity = getVelocity();
+            float velocityY = previousVelocity.y();
+            boolean wasStill = previousVelocity.x() == 0 && velocityY == 0;
+
+            float velocityX = 0f;
+            if (left && energy >= Constants.MIN_REQUIRED_ENERGY_RUNNING) {
+                velocityX -= Constants.AVATAR_MOVEMENT_SPEED;
+                energy -= Constants.LOST_ENERGY_RUNNING;
+                if (!airborne) {
+                    setState(RUNNING);
+                }
+                renderer().setIsFlippedHorizontally(true);
+            }
+            if (right && energy >= Constants.MIN_REQUIRED_ENERGY_RUNNING) {
+                velocityX += Constants.AVATAR_MOVEMENT_SPEED;
+                energy -= Constants.LOST_ENERGY_RUNNING;
+                if (!airborne) {
+                    setState(RUNNING);
+                }
+                renderer().setIsFlippedHorizontally(false);
+            }
+            velocityY += Constants.AVATAR_GRAVITY * deltaTime;
+            if (jump && !airborne && energy >= Constants.MIN_REQUIRED_ENERGY_JUMPING) {
+                velocityY = -Constants.AVATAR_JUMP_SPEED;
+                airborne = true;
+                energy -= Constants.LOST_ENERGY_JUMPING;
+                setState(JUMPING);
+            } else if (wasStill) {
+                if (energy < Constants.MAX_ENERGY) {
+                    energy = Math.min(Constants.MAX_ENERGY, energy + Constants.CREATED_ENERGY);
+                }
+                setState(IDLE);
+            }
+            if (energy != notifiedEnergy) {
+                notifiedEnergy = energy;
+                ENERGY_CALLBACK.onEnergyChanged(energy);
+            }
+            transform().setVelocity(velocityX, velocityY);
+        }
+
+        /**
+         * Sets the renderable whenever the state changes, as the avatar switches animations.
+         *
+         * @param newState The new state.
+         */
+        private void setState(int newState) {
+            if (state != newState) {
+                state = newState;
+                renderer().setRenderable(renderable);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package pepse.bench;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+import pepse.GameObjectManager;
+import pepse.ProceduralGenerationManager;
+import pepse.util.Constants;
+import pepse.world.Terrain;
+import pepse.world.trees.CanopyExpander;
+import pepse.world.trees.Flora;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the objects the procedural generation keeps in the world, with the canopies drawn as
+ * individual leaves and with them baked.
+ * The followed object is placed at a number of spots along the world, and at each the world is
+ * generated with no materialization budget and left to settle. The average number of objects in
+ * the world, of leaves among them, and of baked and expanded canopies is printed for both.
+ */
+public class CanopyObjectCount {
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final int SEED = 42;
+    private static final int SPOTS = 40;
+    private static final float FIRST_SPOT = 150f;
+    private static final float SPOT_DISTANCE = 700f;
+    private static final int SETTLED_FRAMES = 5;
+    private static final long SETTLE_SLEEP_MILLIS = 1;
+    private static final float DELTA_TIME = 1f / Constants.TARGET_FRAMERATE;
+
+    /**
+     * Runs the count.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%8s %9s %9s %10s %10s%n",
+                "baked", "objects", "leaves", "canopies", "expanded");
+        for (boolean bakeCanopies : new boolean[]{false, true}) {
+            Terrain terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+            Flora flora = new Flora(terrain, SEED);
+            flora.getTreeGenerator().setCanopyBaking(bakeCanopies);
+            LayeredObjectManager objectManager = new LayeredObjectManager();
+            GameObject followed = new GameObject(Vector2.ZERO, Vector2.ONES, null);
+            ProceduralGenerationManager manager = new ProceduralGenerationManager(terrain, flora,
+                    objectManager, followed, WINDOW_DIMENSIONS);
+            manager.setMaterializationBudget(0, 0);
+            CanopyExpander canopyExpander = manager.getCanopyExpander();
+
+            long objects = 0;
+            long leaves = 0;
+            long canopies = 0;
+            long expanded = 0;
+            for (int spot = 0; spot < SPOTS; spot++) {
+                followed.setTopLeftCorner(new Vector2(FIRST_SPOT + spot * SPOT_DISTANCE, 0));
+                settle(manager, objectManager);
+                objects += objectManager.size();
+                leaves += objectManager.count(Layer.FOREGROUND);
+                canopies += canopyExpander.getCanopyCount();
+                expanded += canopyExpander.getExpandedCount();
+            }
+            System.out.printf("%8b %9.1f %9.1f %10.1f %10.1f%n", bakeCanopies,
+                    objects / (double) SPOTS, leaves / (double) SPOTS,
+                    canopies / (double) SPOTS, expanded / (double) SPOTS);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Updates the generation until the number of objects in the world stops changing, giving the
+     * workers time to generate the loaded chunks between frames.
+     *
+     * @param manager       The procedural generation manager.
+     * @param objectManager The manager holding the generated objects.
+     */
+    private static void settle(ProceduralGenerationManager manager,
+                               LayeredObjectManager objectManager) throws InterruptedException {
+        int unchanged = 0;
+        int lastSize = -1;
+        while (unchanged < SETTLED_FRAMES) {
+            Thread.sleep(SETTLE_SLEEP_MILLIS);
+            manager.update(DELTA_TIME);
+            unchanged = objectManager.size() == lastSize ? unchanged + 1 : 0;
+            lastSize = objectManager.size();
+        }
+    }
+
+    /** Holds the objects the generation adds to the world with the layer each was added to. */
+    private static class LayeredObjectManager implements GameObjectManager {
+        private final Map<GameObject, Integer> layers = new HashMap<>();
+
+        /**
+         * Adds a game object to the world.
+         *
+         * @param gameObject The game object to add.
+         * @param layer      The layer the object is added to.
+         */
+        @Override
+        public void addGameObject(GameObject gameObject, int layer) {
+            layers.put(gameObject, layer);
+        }
+
+        /**
+         * Removes a game object from the world.
+         *
+         * @param gameObject The game object to remove.
+         * @param layer      Unused.
+         */
+        @Override
+        public void removeGameObject(GameObject gameObject, int layer) {
+            layers.remove(gameObject);
+        }
+
+        /**
+         * Returns the number of objects in the world.
+         *
+         * @return The number of objects.
+         */
+        int size() {
+            return layers.size();
+        }
+
+        /**
+         * Returns the number of objects in one layer.
+         *
+         * @param layer The layer.
+         * @return The number of objects added to the layer.
+         */
+        int count(int layer) {
+            int count = 0;
+            for (int objectLayer : layers.values()) {
+                if (objectLayer == layer) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package pepse.bench;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.GameObjectManager;
+import pepse.ProceduralGenerationManager;
+import pepse.util.Constants;
+import pepse.world.Terrain;
+import pepse.world.trees.Flora;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Measures the per-frame cost of the procedural generation update against the number of live
+ * chunks and objects.
+ * The number of loaded chunks is set by the load and unload radius. For each radius the world is
+ * generated around a followed object, left to settle and walked a few chunks to warm up. Then
+ * three kinds of frames are timed: frames in which the object stands still, so the visible range
+ * doesn't change, frames in which it walks at the avatar's speed, and frames in which it steps
+ * one chunk to the right, unloading the chunk that left the range and loading the one that
+ * entered it. After each step the new chunk is left to generate and attach, untimed.
+ * The median time of each is printed as a table with the loaded chunks and objects, after a
+ * first pass over every radius that warms up the compiler and is not printed.
+ */
+public class ChunkUpdateCost {
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final int SEED = 42;
+    private static final int[] RADII = {0, 2, 8, 32};
+    private static final int WARMUP_FRAMES = 200;
+    private static final int IDLE_FRAMES = 1000;
+    private static final int WALK_FRAMES = 1000;
+    private static final int WARMUP_CROSSINGS = 20;
+    private static final int CROSSINGS = 100;
+    private static final int SETTLED_FRAMES = 5;
+    private static final long SETTLE_SLEEP_MILLIS = 1;
+    private static final float DELTA_TIME = 1f / Constants.TARGET_FRAMERATE;
+    private static final int CHUNK_SIZE = Constants.BLOCK_SIZE * Constants.CHUNK_WIDTH;
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    /**
+     * Runs the measurement, once over every radius to warm up and once to print.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        for (int radius : RADII) {
+            measure(radius);
+        }
+        System.out.printf("%6s %8s %9s %12s %12s %14s%n",
+                "radius", "chunks", "objects", "idle us", "walking us", "crossing us");
+        for (int radius : RADII) {
+            double[] row = measure(radius);
+            System.out.printf("%6d %8d %9d %12.1f %12.1f %14.1f%n",
+                    radius, (int) row[0], (int) row[1], row[2], row[3], row[4]);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Generates a world with the given chunk radius and times its idle, walking and crossing
+     * frames.
+     *
+     * @param radius The load and unload radius of the chunks.
+     * @return The loaded chunks, the objects in the world, and the median idle, walking and
+     *         crossing frame times in microseconds.
+     */
+    private static double[] measure(int radius) throws InterruptedException {
+        Terrain terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        Flora flora = new Flora(terrain, SEED);
+        CountingObjectManager objectManager = new CountingObjectManager();
+        GameObject followed = new GameObject(
+                new Vector2(CHUNK_SIZE / (float) Constants.HALF, 0), Vector2.ONES, null);
+        ProceduralGenerationManager manager = new ProceduralGenerationManager(terrain, flora,
+                objectManager, followed, WINDOW_DIMENSIONS);
+        manager.setChunkRadii(radius, radius);
+
+        settle(manager, objectManager);
+        for (int crossing = 0; crossing < WARMUP_CROSSINGS; crossing++) {
+            stepOneChunk(followed);
+            manager.update(DELTA_TIME);
+            settle(manager, objectManager);
+        }
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            manager.update(DELTA_TIME);
+        }
+        long[] idle = new long[IDLE_FRAMES];
+        for (int frame = 0; frame < IDLE_FRAMES; frame++) {
+            long start = System.nanoTime();
+            manager.update(DELTA_TIME);
+            idle[frame] = System.nanoTime() - start;
+        }
+        int chunks = manager.getLoadedChunkCount();
+        int objects = objectManager.size();
+
+        long[] walking = new long[WALK_FRAMES];
+        Vector2 walkStep = new Vector2(Constants.AVATAR_MOVEMENT_SPEED * DELTA_TIME, 0);
+        for (int frame = 0; frame < WALK_FRAMES; frame++) {
+            followed.setTopLeftCorner(followed.getTopLeftCorner().add(walkStep));
+            long start = System.nanoTime();
+            manager.update(DELTA_TIME);
+            walking[frame] = System.nanoTime() - start;
+        }
+        settle(manager, objectManager);
+
+        long[] crossings = new long[CROSSINGS];
+        for (int crossing = 0; crossing < CROSSINGS; crossing++) {
+            stepOneChunk(followed);
+            long start = System.nanoTime();
+            manager.update(DELTA_TIME);
+            crossings[crossing] = System.nanoTime() - start;
+            settle(manager, objectManager);
+        }
+        return new double[]{chunks, objects, median(idle), median(walking), median(crossings)};
+    }
+
+    /**
+     * Moves the followed object one chunk to the right.
+     *
+     * @param followed The followed object.
+     */
+    private static void stepOneChunk(GameObject followed) {
+        followed.setTopLeftCorner(followed.getTopLeftCorner().add(new Vector2(CHUNK_SIZE, 0)));
+    }
+
+    /**
+     * Updates the generation until the number of objects in the world stops changing, giving the
+     * workers time to generate the loaded chunks between frames.
+     *
+     * @param manager       The procedural generation manager.
+     * @param objectManager The manager holding the generated objects.
+     */
+    private static void settle(ProceduralGenerationManager manager,
+                               CountingObjectManager objectManager) throws InterruptedException {
+        int unchanged = 0;
+        int lastSize = -1;
+        while (unchanged < SETTLED_FRAMES) {
+            Thread.sleep(SETTLE_SLEEP_MILLIS);
+            manager.update(DELTA_TIME);
+            unchanged = objectManager.size() == lastSize ? unchanged + 1 : 0;
+            lastSize = objectManager.size();
+        }
+    }
+
+    /**
+     * Returns the median of a set of durations.
+     *
+     * @param durations The durations, in nanoseconds; sorted in place.
+     * @return The median duration, in microseconds.
+     */
+    private static double median(long[] durations) {
+        Arrays.sort(durations);
+        return durations[durations.length / Constants.HALF] / NANOS_PER_MICRO;
+    }
+
+    /**
+     * Holds the objects the generation adds to the world in a set, as the engine's collection
+     * of game objects would, so adding and removing them costs about what it does in the game.
+     */
+    private static class CountingObjectManager implements GameObjectManager {
+        private final Set<GameObject> objects = new HashSet<>();
+
+        /**
+         * Adds a game object to the world.
+         *
+         * @param gameObject The game object to add.
+         * @param layer      Unused.
+         */
+        @Override
+        public void addGameObject(GameObject gameObject, int layer) {
+            objects.add(gameObject);
+        }
+
+        /**
+         * Removes a game object from the world.
+         *
+         * @param gameObject The game object to remove.
+         * @param layer      Unused.
+         */
+        @Override
+        public void removeGameObject(GameObject gameObject, int layer) {
+            objects.remove(gameObject);
+        }
+
+        /**
+         * Returns the number of objects in the world.
+         *
+         * @return The number of objects.
+         */
+        int size() {
+            return objects.size();
+        }
+    }
+}
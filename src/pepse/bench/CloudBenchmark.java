@@ -0,0 +1,83 @@
+package pepse.bench;
+
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.world.weather.Cloud;
+import pepse.world.weather.CloudSystem;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Measures the per-frame cost of the clouds at 1, 10 and 100 clouds in the sky at once.
+ * Each frame the cloud system is updated, moving every cloud and reshaping the ones that left
+ * the screen, and every cloud is rendered into an image the size of the window, the way the
+ * engine draws it. The median update, render and total time per frame is printed as a table.
+ */
+public class CloudBenchmark {
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final int[] CLOUD_COUNTS = {1, 10, 100};
+    private static final int WARMUP_FRAMES = 500;
+    private static final int MEASURED_FRAMES = 1000;
+    private static final float DELTA_TIME = 1f / Constants.TARGET_FRAMERATE;
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        BufferedImage frame = new BufferedImage((int) WINDOW_DIMENSIONS.x(),
+                (int) WINDOW_DIMENSIONS.y(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = frame.createGraphics();
+
+        System.out.printf("%8s %12s %12s %12s%n", "clouds", "update us", "render us", "total us");
+        for (int cloudCount : CLOUD_COUNTS) {
+            CloudSystem clouds = new CloudSystem(WINDOW_DIMENSIONS, cloudCount);
+            long[] updates = new long[MEASURED_FRAMES];
+            long[] renders = new long[MEASURED_FRAMES];
+            long[] totals = new long[MEASURED_FRAMES];
+            for (int i = 0; i < WARMUP_FRAMES + MEASURED_FRAMES; i++) {
+                long start = System.nanoTime();
+                clouds.update(DELTA_TIME);
+                long updated = System.nanoTime();
+                render(clouds, graphics);
+                long rendered = System.nanoTime();
+                if (i >= WARMUP_FRAMES) {
+                    updates[i - WARMUP_FRAMES] = updated - start;
+                    renders[i - WARMUP_FRAMES] = rendered - updated;
+                    totals[i - WARMUP_FRAMES] = rendered - start;
+                }
+            }
+            System.out.printf("%8d %12.1f %12.1f %12.1f%n", cloudCount,
+                    median(updates), median(renders), median(totals));
+        }
+        graphics.dispose();
+    }
+
+    /**
+     * Renders every cloud at its position, as the engine does once per frame.
+     *
+     * @param clouds   The cloud system.
+     * @param graphics The graphics of the frame image.
+     */
+    private static void render(CloudSystem clouds, Graphics2D graphics) {
+        for (Cloud cloud : clouds.getClouds()) {
+            cloud.renderer().getRenderable().render(graphics, cloud.getTopLeftCorner(),
+                    cloud.getDimensions(), 0, false, false, 1);
+        }
+    }
+
+    /**
+     * Returns the median of a set of durations.
+     *
+     * @param durations The durations, in nanoseconds; sorted in place.
+     * @return The median duration, in microseconds.
+     */
+    private static double median(long[] durations) {
+        Arrays.sort(durations);
+        return durations[durations.length / Constants.HALF] / NANOS_PER_MICRO;
+    }
+}
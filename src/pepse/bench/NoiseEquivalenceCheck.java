@@ -0,0 +1,140 @@
+package pepse.bench;
+
+import pepse.util.Constants;
+import pepse.util.NoiseGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Checks that batchNoise generates the same noise as calling noise for every x, and measures
+ * how much faster it is.
+ * Both batchNoise outputs are compared with noise over several seeds, including a fractional one
+ * that takes the fallback path, several start points, and runs of x values on both sides of the
+ * origin with the steps and factors the terrain uses. The largest difference is printed and the
+ * check exits with an error if it is over the tolerance: 1e-9 for the double output, and one ulp
+ * of the expected value for the float output, as the cast may round a difference that small.
+ * Then the time per sample of noise and of batchNoise is printed, for a chunk of columns and for
+ * a longer run.
+ */
+public class NoiseEquivalenceCheck {
+    private static final double[] SEEDS = {0, 1, 42, -7, 123456, 3.5};
+    private static final int[] START_POINTS = {1, 300, 512};
+    private static final double[] START_XS = {0, 12345.5, -98765, 1e7};
+    private static final double[] STEPS = {Constants.BLOCK_SIZE,
+            Constants.BLOCK_SIZE * Constants.TERRAIN_X_NOISE_FACTOR, 0.37};
+    private static final double[] FACTORS = {Constants.SIN_NOISE_FACTOR,
+            Constants.BLOCK_SIZE * Constants.TERRAIN_BASE_NOISE_FACTOR,
+            Constants.BLOCK_SIZE * Constants.TERRAIN_FINE_NOISE_FACTOR};
+    private static final int RUN_LENGTH = 1000;
+    private static final double DOUBLE_TOLERANCE = 1e-9;
+    private static final int BENCHMARK_SEED = 42;
+    private static final int BENCHMARK_START_POINT = 400;
+    private static final int[] BENCHMARK_LENGTHS = {Constants.CHUNK_WIDTH, RUN_LENGTH};
+    private static final int BENCHMARK_SAMPLES = 500_000;
+    private static final int BENCHMARK_REPEATS = 15;
+    private static final int WARMUP_REPEATS = 5;
+
+    private static double sink;
+
+    /**
+     * Runs the check and the benchmark.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        double maxDoubleError = 0;
+        double maxFloatUlps = 0;
+        int runs = 0;
+        double[] doubles = new double[RUN_LENGTH];
+        float[] floats = new float[RUN_LENGTH];
+        for (double seed : SEEDS) {
+            for (int startPoint : START_POINTS) {
+                NoiseGenerator generator = new NoiseGenerator(seed, startPoint);
+                for (double startX : START_XS) {
+                    for (double step : STEPS) {
+                        for (double factor : FACTORS) {
+                            generator.batchNoise(startX, step, factor, doubles);
+                            generator.batchNoise(startX, step, factor, floats);
+                            for (int i = 0; i < RUN_LENGTH; i++) {
+                                double expected = generator.noise(startX + i * step, factor);
+                                maxDoubleError = Math.max(maxDoubleError,
+                                        Math.abs(doubles[i] - expected));
+                                float expectedFloat = (float) expected;
+                                maxFloatUlps = Math.max(maxFloatUlps,
+                                        Math.abs(floats[i] - expectedFloat)
+                                                / Math.ulp(expectedFloat));
+                            }
+                            runs++;
+                        }
+                    }
+                }
+            }
+        }
+        System.out.printf("runs %d of %d samples%n", runs, RUN_LENGTH);
+        System.out.printf("max double error %.3e (tolerance %.0e)%n",
+                maxDoubleError, DOUBLE_TOLERANCE);
+        System.out.printf("max float error  %.2f ulp (tolerance 1 ulp)%n", maxFloatUlps);
+        if (maxDoubleError > DOUBLE_TOLERANCE || maxFloatUlps > 1) {
+            System.out.println("FAIL: batchNoise differs from noise");
+            System.exit(1);
+        }
+        System.out.println("OK");
+
+        benchmark();
+    }
+
+    /**
+     * Times noise and batchNoise on runs of the terrain's base noise, and prints the median time
+     * per sample of both.
+     */
+    private static void benchmark() {
+        NoiseGenerator generator = new NoiseGenerator(BENCHMARK_SEED, BENCHMARK_START_POINT);
+        double factor = Constants.BLOCK_SIZE * Constants.TERRAIN_BASE_NOISE_FACTOR;
+        System.out.printf("%8s %14s %14s %8s%n", "samples", "noise ns", "batch ns", "speedup");
+        for (int length : BENCHMARK_LENGTHS) {
+            float[] out = new float[length];
+            int runs = BENCHMARK_SAMPLES / length;
+            long[] scalarTimes = new long[BENCHMARK_REPEATS];
+            long[] batchTimes = new long[BENCHMARK_REPEATS];
+            for (int repeat = 0; repeat < WARMUP_REPEATS + BENCHMARK_REPEATS; repeat++) {
+                long start = System.nanoTime();
+                for (int run = 0; run < runs; run++) {
+                    double firstX = (double) run * length * Constants.BLOCK_SIZE;
+                    for (int i = 0; i < length; i++) {
+                        out[i] = (float) generator.noise(firstX + i * Constants.BLOCK_SIZE, factor);
+                    }
+                    sink += out[run % length];
+                }
+                long scalarEnd = System.nanoTime();
+                for (int run = 0; run < runs; run++) {
+                    double firstX = (double) run * length * Constants.BLOCK_SIZE;
+                    generator.batchNoise(firstX, Constants.BLOCK_SIZE, factor, out);
+                    sink += out[run % length];
+                }
+                long batchEnd = System.nanoTime();
+                if (repeat >= WARMUP_REPEATS) {
+                    scalarTimes[repeat - WARMUP_REPEATS] = scalarEnd - start;
+                    batchTimes[repeat - WARMUP_REPEATS] = batchEnd - scalarEnd;
+                }
+            }
+            double samples = (double) runs * length;
+            double scalar = median(scalarTimes) / samples;
+            double batch = median(batchTimes) / samples;
+            System.out.printf("%8d %14.2f %14.2f %7.2fx%n", length, scalar, batch, scalar / batch);
+        }
+        if (sink == Double.MIN_VALUE) {
+            System.out.println(sink);
+        }
+    }
+
+    /**
+     * Returns the median of a set of durations.
+     *
+     * @param durations The durations, in nanoseconds; sorted in place.
+     * @return The median duration, in nanoseconds.
+     */
+    private static long median(long[] durations) {
+        Arrays.sort(durations);
+        return durations[durations.length / Constants.HALF];
+    }
+}
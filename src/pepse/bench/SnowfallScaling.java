@@ -0,0 +1,79 @@
+package pepse.bench;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.world.Terrain;
+import pepse.world.weather.CloudSystem;
+import pepse.world.weather.Snowfall;
+
+import java.util.Arrays;
+
+/**
+ * Measures how the update of the snowfall scales with the number of worker threads.
+ * For each flake count, the snowfall is updated on 1, 2 and 4 threads and on as many threads as
+ * there are available processors, and the median update time, drawing included, is printed as
+ * a table with the speedup over one thread.
+ */
+public class SnowfallScaling {
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(1280, 720);
+    private static final int SEED = 42;
+    private static final int[] PARTICLE_COUNTS = {10_000, 50_000, 100_000};
+    private static final int WARMUP_FRAMES = 200;
+    private static final int MEASURED_FRAMES = 300;
+    private static final float DELTA_TIME = 1f / Constants.TARGET_FRAMERATE;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    /**
+     * Runs the measurement.
+     *
+     * @param args Unused.
+     */
+    public static void main(String[] args) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int[] threadCounts = processors > 4 ? new int[]{1, 2, 4, processors} : new int[]{1, 2, 4};
+        Terrain terrain = new Terrain(WINDOW_DIMENSIONS, SEED);
+        CloudSystem clouds = new CloudSystem(WINDOW_DIMENSIONS, Constants.CLOUD_COUNT);
+        GameObject camera = new GameObject(Vector2.ZERO, WINDOW_DIMENSIONS, null);
+
+        System.out.printf("available processors: %d%n", processors);
+        System.out.printf("%10s %8s %12s %8s%n", "flakes", "threads", "median ms", "speedup");
+        for (int particleCount : PARTICLE_COUNTS) {
+            Snowfall snowfall = new Snowfall(WINDOW_DIMENSIONS, camera, clouds,
+                    terrain.getHeightmapCache(), particleCount, particleCount);
+            double singleThread = 0;
+            for (int threads : threadCounts) {
+                snowfall.setParallelism(threads);
+                double median = medianUpdateMillis(snowfall, clouds);
+                if (threads == 1) {
+                    singleThread = median;
+                }
+                System.out.printf("%10d %8d %12.3f %7.2fx%n",
+                        particleCount, threads, median, singleThread / median);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Updates the snowfall and the clouds it falls from for a number of frames.
+     *
+     * @param snowfall The snowfall.
+     * @param clouds   The clouds.
+     * @return The median time of one update of the snowfall, in milliseconds.
+     */
+    private static double medianUpdateMillis(Snowfall snowfall, CloudSystem clouds) {
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            clouds.update(DELTA_TIME);
+            snowfall.update(DELTA_TIME);
+        }
+        long[] durations = new long[MEASURED_FRAMES];
+        for (int frame = 0; frame < MEASURED_FRAMES; frame++) {
+            clouds.update(DELTA_TIME);
+            snowfall.update(DELTA_TIME);
+            durations[frame] = snowfall.getLastUpdateNanos();
+        }
+        Arrays.sort(durations);
+        return durations[MEASURED_FRAMES / Constants.HALF] / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,82 @@
+package pepse.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Provides the random streams procedural generation draws from.
+ * Each stream is derived only from the world seed, the index of a chunk and the purpose it is
+ * used for, so generating the same chunk on any thread, at any time, gives the same content.
+ */
+public final class ChunkRandom {
+
+    /**
+     * The purposes random streams are drawn for. Each purpose gets its own stream, so adding
+     * draws for one purpose doesn't change the content generated for another.
+     */
+    public enum Purpose {
+        /** Colors of the terrain columns. */
+        TERRAIN,
+        /** Colors of the baked terrain sprite. */
+        TERRAIN_SPRITE,
+        /** The variants chosen for the trees. */
+        FLORA,
+        /** The tree variants shared by the whole world. */
+        TREE_TEMPLATES
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private ChunkRandom() {
+    }
+
+    /**
+     * Returns a new random stream for one purpose in one chunk.
+     *
+     * @param worldSeed The seed of the world.
+     * @param chunk     The index of the chunk along the x-axis.
+     * @param purpose   What the stream is used for.
+     * @return A random stream that is always the same for the same arguments.
+     */
+    public static SplittableRandom forChunk(long worldSeed, int chunk, Purpose purpose) {
+        long key = mix(worldSeed);
+        key = mix(key + chunk * GOLDEN_GAMMA);
+        key = mix(key + (purpose.ordinal() + 1) * GOLDEN_GAMMA);
+        return new SplittableRandom(key);
+    }
+
+    /**
+     * Returns a new random stream for one purpose that isn't tied to a chunk.
+     *
+     * @param worldSeed The seed of the world.
+     * @param purpose   What the stream is used for.
+     * @return A random stream that is always the same for the same arguments.
+     */
+    public static SplittableRandom forWorld(long worldSeed, Purpose purpose) {
+        return new SplittableRandom(mix(mix(worldSeed) + (purpose.ordinal() + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns a new random stream for one purpose in the chunk containing an x-coordinate.
+     *
+     * @param worldSeed The seed of the world.
+     * @param x         An x-coordinate inside the chunk.
+     * @param purpose   What the stream is used for.
+     * @return A random stream that is always the same for the same chunk and purpose.
+     */
+    public static SplittableRandom forChunkAt(long worldSeed, int x, Purpose purpose) {
+        int chunk = Math.floorDiv(x, Constants.CHUNK_WIDTH * Constants.BLOCK_SIZE);
+        return forChunk(worldSeed, chunk, purpose);
+    }
+
+    /**
+     * Scrambles the bits of a key, so that nearby keys give unrelated streams.
+     *
+     * @param key The key.
+     * @return The scrambled key.
+     */
+    private static long mix(long key) {
+        key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+        key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+        return key ^ (key >>> 31);
+    }
+}
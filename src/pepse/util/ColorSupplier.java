@@ -3,6 +3,7 @@ package pepse.util;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Provides procedurally-generated colors around a pivot.
@@ -33,7 +34,8 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateMonoColor(Color baseColor, int colorDelta) {
-        int channel = randomChannelInRange(baseColor.getRed() - colorDelta, baseColor.getRed() + colorDelta);
+        int channel = randomChannelInRange(baseColor.getRed() - colorDelta, baseColor.getRed() + colorDelta,
+                random);
         return new Color(channel, channel, channel);
     }
 
@@ -58,11 +60,26 @@ public final class ColorSupplier {
      * @return A color similar to baseColor.
      */
     public static Color approximateColor(Color baseColor, int colorDelta) {
+        return approximateColor(baseColor, colorDelta, random);
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta,
+     * drawn from the given random stream.
+     *
+     * @param baseColor  A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @param random     The random stream to draw from.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, int colorDelta, RandomGenerator random) {
 
         return new Color(
-                randomChannelInRange(baseColor.getRed() - colorDelta, baseColor.getRed() + colorDelta),
-                randomChannelInRange(baseColor.getGreen() - colorDelta, baseColor.getGreen() + colorDelta),
-                randomChannelInRange(baseColor.getBlue() - colorDelta, baseColor.getBlue() + colorDelta));
+                randomChannelInRange(baseColor.getRed() - colorDelta, baseColor.getRed() + colorDelta, random),
+                randomChannelInRange(baseColor.getGreen() - colorDelta, baseColor.getGreen() + colorDelta,
+                        random),
+                randomChannelInRange(baseColor.getBlue() - colorDelta, baseColor.getBlue() + colorDelta,
+                        random));
     }
 
     /**
@@ -70,9 +87,10 @@ public final class ColorSupplier {
      *
      * @param min The lower bound of the given range.
      * @param max The upper bound of the given range.
+     * @param random The random stream to draw from.
      * @return A random number in the range [min, max], clipped to [0,255].
      */
-    private static int randomChannelInRange(int min, int max) {
+    private static int randomChannelInRange(int min, int max, RandomGenerator random) {
         int channel = random.nextInt(max - min + 1) + min;
         return Math.min(255, Math.max(channel, 0));
     }
@@ -90,6 +108,18 @@ public final class ColorSupplier {
      * @return A randomly selected Color from the colors array, biased towards earlier colors.
      */
     public static Color chooseRandomColor(Color[] colors) {
+        return chooseRandomColor(colors, random);
+    }
+
+    /**
+     * Selects a color from the colors array like chooseRandomColor(Color[]), drawing from the
+     * given random stream.
+     *
+     * @param colors the array of colors to choose from
+     * @param random the random stream to draw from
+     * @return A randomly selected Color from the colors array, biased towards earlier colors.
+     */
+    public static Color chooseRandomColor(Color[] colors, RandomGenerator random) {
         int n = colors.length;
         if (n == 0) {
             return colors[0];
@@ -1,5 +1,6 @@
 package pepse.util;
 
+import danogl.collisions.Layer;
 import danogl.util.Vector2;
 import pepse.world.AvatarJumpCallback;
 
@@ -28,13 +29,13 @@ public class Constants {
 
     //Night
     /**
-     * The opacity of the night during midnight.
+     * The fraction of the ambient light lost at midnight.
      */
-    public static final float MIDNIGHT_OPACITY = 0.5f;
+    public static final float MIDNIGHT_DARKNESS = 0.5f;
     /**
-     * The initial value for transitions.
+     * Number of levels the ambient light is quantized into, each with its own tinted colors.
      */
-    public static final float INITIAL_TRANSITION_VALUE = 0f;
+    public static final int AMBIENT_LIGHT_LEVELS = 16;
 
     // Halo
     /**
@@ -75,6 +76,10 @@ public class Constants {
      * Duration of the sun's cycle in seconds.
      */
     public static final float SUN_CYCLE_LENGTH = 50f;
+    /**
+     * Number of time buckets the day-night cycle is split into for its lookup tables.
+     */
+    public static final int TIME_OF_DAY_BUCKETS = 256;
 
     // Flora
     /**
@@ -132,6 +137,26 @@ public class Constants {
      * Maximum height of a tree trunk.
      */
     public static final int MAX_TRUNK_SIZE = 7;
+    /**
+     * Number of precomputed tree variants for every trunk height.
+     */
+    public static final int TREE_TEMPLATE_VARIANTS = 16;
+    /**
+     * Initial number of slots of the map of eaten fruit.
+     */
+    public static final int EATEN_FRUIT_INITIAL_CAPACITY = 64;
+    /**
+     * Time, in seconds, until an eaten fruit grows back.
+     */
+    public static final float FRUIT_REGROWTH_TIME = 30f;
+    /**
+     * Length, in seconds, of one tick of the timer wheel.
+     */
+    public static final float TIMER_TICK_SECONDS = 1f / 60;
+    /**
+     * Number of pending events the timer wheel makes room for up front.
+     */
+    public static final int TIMER_INITIAL_CAPACITY = 256;
 
     // Leaf
     /**
@@ -154,6 +179,42 @@ public class Constants {
      * Additional dimension added to a leaf's size.
      */
     public static final int ADDED_DIMENSION_LEAF = 10;
+    /**
+     * Number of precomputed leaf widths the canopy sway steps through.
+     */
+    public static final int SWAY_WIDTH_STEPS = 16;
+    /**
+     * Initial number of leaves and fruits the canopy sway has room for.
+     */
+    public static final int SWAY_INITIAL_CAPACITY = 1024;
+    /**
+     * Horizontal distance from the avatar within which leaves and fruits sway every frame.
+     */
+    public static final float SWAY_FULL_RATE_DISTANCE = 400f;
+    /**
+     * Number of frames between updates of leaves and fruits beyond the full rate distance.
+     */
+    public static final int SWAY_REDUCED_RATE_INTERVAL = 4;
+    /**
+     * Extra distance past the edge of the screen within which leaves and fruits still sway.
+     */
+    public static final float SWAY_VISIBLE_MARGIN = 40f;
+    /**
+     * Horizontal distance from the avatar within which a baked canopy is expanded into
+     * individual leaves and fruits. Canopies further away stay baked, their fruits animated by
+     * the canopy sway at its reduced rate.
+     */
+    public static final float CANOPY_EXPAND_DISTANCE = 150f;
+    /**
+     * Horizontal distance from the avatar past which an expanded canopy is baked again.
+     */
+    public static final float CANOPY_COLLAPSE_DISTANCE = 250f;
+    /**
+     * Distance the avatar moves between two checks of which canopies to expand or collapse.
+     * Smaller than the gap between the expand and collapse distances, so a canopy is never
+     * collapsed right after it was expanded.
+     */
+    public static final float CANOPY_CHECK_STEP = 32f;
 
     /**
      * The different possible colors a leaf is able to be generated as
@@ -215,6 +276,18 @@ public class Constants {
      * Duration of the cloud animation in seconds.
      */
     public static final float CLOUD_ANIMATION_DURATION = 30f;
+    /**
+     * Number of clouds in the sky at once.
+     */
+    public static final int CLOUD_COUNT = 3;
+    /**
+     * Fraction of the window height by which the heights of clouds vary.
+     */
+    public static final float CLOUD_Y_VARIATION_FACTOR = 0.1f;
+    /**
+     * Number of shades of white the cloud blocks are drawn with.
+     */
+    public static final int CLOUD_SHADES = 8;
 
     // Raindrop
     /**
@@ -253,6 +326,92 @@ public class Constants {
      * The color of the raindrops
      */
     public static final Color RAINDROP_COLOR = Color.CYAN;
+    /**
+     * Maximal number of raindrops alive at once; beyond it the oldest drops are recycled.
+     */
+    public static final int RAINDROP_CAPACITY = 1024;
+    /**
+     * Number of opacity levels raindrops are drawn with while they fade.
+     */
+    public static final int RAINDROP_ALPHA_LEVELS = 32;
+
+    // Snow
+    /**
+     * Maximal number of snowflakes.
+     */
+    public static final int SNOW_CAPACITY = 100_000;
+    /**
+     * Number of snowflakes falling when the game starts.
+     */
+    public static final int SNOW_INITIAL_PARTICLES = 10_000;
+    /**
+     * Number of snowflakes added or removed by one press of a snow key.
+     */
+    public static final int SNOW_PARTICLE_STEP = 10_000;
+    /**
+     * Key that adds snowflakes.
+     */
+    public static final int SNOW_MORE_KEY = KeyEvent.VK_CLOSE_BRACKET;
+    /**
+     * Key that removes snowflakes.
+     */
+    public static final int SNOW_LESS_KEY = KeyEvent.VK_OPEN_BRACKET;
+    /**
+     * Number of snowflakes updated by one task before the range is split further.
+     */
+    public static final int SNOW_UPDATE_GRAIN = 4096;
+    /**
+     * Number of terrain columns beyond each side of the view that snowflakes can land on.
+     */
+    public static final int SNOW_HEIGHTFIELD_MARGIN = 4;
+    /**
+     * Size of a snowflake, in pixels.
+     */
+    public static final int SNOW_FLAKE_SIZE = 2;
+    /**
+     * The color of the snowflakes.
+     */
+    public static final Color SNOW_COLOR = Color.WHITE;
+    /**
+     * Horizontal distance from the cloud's center within which snowflakes start falling.
+     */
+    public static final float SNOW_SPAWN_SPREAD = 300f;
+    /**
+     * Vertical distance below the cloud's center within which snowflakes start falling.
+     */
+    public static final float SNOW_SPAWN_DEPTH = 40f;
+    /**
+     * Slowest falling speed of a snowflake, in pixels per second.
+     */
+    public static final float SNOW_MIN_FALL_SPEED = 40f;
+    /**
+     * Fastest falling speed of a snowflake, in pixels per second.
+     */
+    public static final float SNOW_MAX_FALL_SPEED = 100f;
+    /**
+     * Largest sideways speed of a drifting snowflake, in pixels per second.
+     */
+    public static final float SNOW_DRIFT_SPEED = 20f;
+    /**
+     * Angular frequency of a snowflake's sideways drift, in radians per second.
+     */
+    public static final float SNOW_DRIFT_FREQUENCY = 1.5f;
+    /**
+     * Time, in seconds, a snowflake rests on the ground before falling again from a cloud.
+     */
+    public static final float SNOW_REST_TIME = 1.5f;
+    /**
+     * Time, in seconds, a snowflake that hit the ground splashes before it rests.
+     */
+    public static final float SNOW_SPLASH_TIME = 0.25f;
+    /**
+     * Horizontal distance, in pixels, the spray of a splash flies to each side of the flake.
+     */
+    public static final float SNOW_SPLASH_SPREAD = 8f;
+    /**
+     * Height, in pixels, the spray of a splash rises above the ground.
+     */
+    public static final float SNOW_SPLASH_HEIGHT = 5f;
 
 
     //Avatar
@@ -491,6 +650,31 @@ public class Constants {
      * Basic color of the sky.
      */
     public static final Color BASIC_SKY_COLOR = new Color(163, 201, 217);
+    /**
+     * Color of the top of the sky at noon; the horizon takes the basic sky color.
+     */
+    public static final Color SKY_DAY_TOP_COLOR = new Color(96, 156, 204);
+    /**
+     * Color of the top of the sky at midnight.
+     */
+    public static final Color SKY_NIGHT_TOP_COLOR = new Color(8, 12, 36);
+    /**
+     * Color of the horizon at midnight.
+     */
+    public static final Color SKY_NIGHT_HORIZON_COLOR = new Color(28, 38, 72);
+    /**
+     * Color the horizon glows with while the sun rises or sets.
+     */
+    public static final Color SKY_DUSK_COLOR = new Color(242, 150, 92);
+    /**
+     * Height of the sun, as a fraction of its circle's radius above or below the horizon,
+     * within which the horizon glows.
+     */
+    public static final float SKY_DUSK_WIDTH = 0.35f;
+    /**
+     * How much of the dusk color the horizon takes while the sun is right at the horizon.
+     */
+    public static final float SKY_DUSK_STRENGTH = 0.6f;
 
     // Terrain
     /**
@@ -517,6 +701,14 @@ public class Constants {
      * Noise factor for X-axis terrain variations.
      */
     public static final int TERRAIN_X_NOISE_FACTOR = 2;
+    /**
+     * Layer of the non-colliding terrain fill, drawn just behind the static objects.
+     */
+    public static final int TERRAIN_FILL_LAYER = Layer.STATIC_OBJECTS - 1;
+    /**
+     * The number of chunks whose column heights are kept in the heightmap cache.
+     */
+    public static final int HEIGHTMAP_CACHE_CHUNKS = 64;
 
     /**
      * The different possible colors a block in the terrain is able to be generated as
@@ -545,6 +737,11 @@ public class Constants {
      * Main layer of the game elements.
      */
     public static final int MAIN_LAYER = 50;
+    /**
+     * Layer of the fruits, which don't take part in collisions; the avatar finds the fruits it
+     * touches through the fruit index instead.
+     */
+    public static final int FRUIT_LAYER = Layer.STATIC_OBJECTS + 1;
     /**
      * Target framerate for the game.
      */
@@ -554,5 +751,30 @@ public class Constants {
      * the size of each chunk for the procedural generator.
      */
     public static final int CHUNK_WIDTH = 10;
+    /**
+     * The number of chunks past each side of the visible range that are loaded.
+     */
+    public static final int CHUNK_LOAD_RADIUS = 0;
+    /**
+     * The number of chunks past each side of the visible range that stay loaded once loaded.
+     */
+    public static final int CHUNK_UNLOAD_RADIUS = 1;
+    /**
+     * The maximal number of chunk objects added to or removed from the world per frame.
+     */
+    public static final int MATERIALIZATION_OBJECTS_PER_FRAME = 300;
+    /**
+     * The maximal time, in microseconds, spent adding or removing chunk objects per frame.
+     */
+    public static final long MATERIALIZATION_MICROS_PER_FRAME = 4000;
+    /**
+     * The share of the per-frame materialization budget reserved for removing the objects of
+     * unloaded chunks before any are added.
+     */
+    public static final float MATERIALIZATION_DETACH_SHARE = 0.5f;
+    /**
+     * The maximal number of idle objects kept by each object pool.
+     */
+    public static final int OBJECT_POOL_CAPACITY = 5000;
 
 }
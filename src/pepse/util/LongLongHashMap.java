@@ -0,0 +1,152 @@
+package pepse.util;
+
+import java.util.Arrays;
+
+/**
+ * A map from long keys to long values, stored in two primitive arrays with open addressing and
+ * linear probing, so an entry costs 16 bytes and no objects.
+ * Removing an entry shifts the entries probed past it back, so no tombstones are left behind.
+ * A value of 0 is returned for missing keys.
+ * Long.MIN_VALUE is reserved to mark empty slots and can't be used as a key.
+ */
+public class LongLongHashMap {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float MAX_LOAD = 0.5f;
+
+    private long[] keys;
+    private long[] values;
+    private int size = 0;
+
+    /**
+     * Constructor for the LongLongHashMap class.
+     *
+     * @param initialCapacity The number of slots to start with, rounded up to a power of two.
+     */
+    public LongLongHashMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key The key.
+     * @return The value of the key, or 0 if the key isn't in the map.
+     */
+    public long get(long key) {
+        int slot = find(keys, key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE can't be used as a key");
+        }
+        int slot = find(keys, key);
+        if (keys[slot] != key) {
+            if (size + 1 > keys.length * MAX_LOAD) {
+                grow();
+                slot = find(keys, key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Removes a key and its value, if the key is in the map.
+     *
+     * @param key The key.
+     */
+    public void remove(long key) {
+        int slot = find(keys, key);
+        if (keys[slot] != key) {
+            return;
+        }
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            // An entry can fill the hole only if the hole lies between its home slot and it
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+        size--;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of keys in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes held by the map's arrays.
+     *
+     * @return The memory used by the entries, in bytes.
+     */
+    public long memoryBytes() {
+        return (long) keys.length * Long.BYTES * 2;
+    }
+
+    /**
+     * Finds the slot of a key, or the empty slot where it would go.
+     *
+     * @param keys The key array to search.
+     * @param key  The key.
+     * @return The index of the slot.
+     */
+    private static int find(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Doubles the number of slots and reinserts every entry. */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a key, so that keys differing only in their high bits don't collide.
+     *
+     * @param key The key.
+     * @return The hash of the key.
+     */
+    private static int hash(long key) {
+        key = (key ^ (key >>> 33)) * 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
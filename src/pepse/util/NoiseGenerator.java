@@ -8,6 +8,9 @@ public class NoiseGenerator {
     private int[] p;
     private int[] permutation;
     private double startPoint;
+    private double[] octaves;
+    private double[] gradientsAtX;
+    private double[] gradientsAtNextX;
 
     /**
      * The constructor of the NoiseGenerator class.
@@ -57,6 +60,50 @@ public class NoiseGenerator {
             p[256 + i] = p[i] = permutation[i];
         }
 
+        initOctaves();
+        initLineGradients();
+    }
+
+    private void initOctaves() {
+        int count = 0;
+        for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+            count++;
+        }
+        this.octaves = new double[count];
+        double currentPoint = startPoint;
+        for (int i = 0; i < count; i++) {
+            octaves[i] = currentPoint;
+            currentPoint /= 2.0;
+        }
+    }
+
+    /**
+     * noise() only ever samples the line y = seed, z = 0 of the 3D noise. When the seed is a whole
+     * number, the fractional y and z are 0 there, so each corner's gradient reduces to +x, -x or 0.
+     * This precomputes that sign, for both ends of every unit segment along the line.
+     */
+    private void initLineGradients() {
+        if (seed != Math.floor(seed)) {
+            return; // the line isn't on a lattice plane, batchNoise falls back to smoothNoise
+        }
+        int Y = (int) Math.floor(seed) & 255;
+        this.gradientsAtX = new double[256];
+        this.gradientsAtNextX = new double[256];
+        for (int X = 0; X < 256; X++) {
+            gradientsAtX[X] = lineGradient(p[p[p[X] + Y]]);
+            gradientsAtNextX[X] = lineGradient(p[p[p[X + 1] + Y]]);
+        }
+    }
+
+    private double lineGradient(int hash) {
+        int h = hash & 15;
+        if (h < 8) {
+            return (h & 1) == 0 ? 1 : -1;
+        }
+        if (h == 12 || h == 14) {
+            return (h & 2) == 0 ? 1 : -1;
+        }
+        return 0;
     }
 
     /**
@@ -86,6 +133,60 @@ public class NoiseGenerator {
     }
 
 
+    /**
+     * Generates noise for an evenly spaced run of x values, as if noise(x, factor) was called for
+     * each of them. For a whole-number seed the noise is computed along a 1D gradient path instead
+     * of a full 3D evaluation, and matches noise() to within 1e-9 (it performs the same floating
+     * point operations, so in practice it is identical). Other seeds fall back to noise().
+     *
+     * @param startX the first x to receive noise for.
+     * @param step   the distance between two consecutive x values.
+     * @param factor describes how large the noise should be, as in noise().
+     * @param out    receives the noise of startX + i * step at index i, for its whole length.
+     */
+    public void batchNoise(double startX, double step, double factor, double[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = lineNoise(startX + i * step, factor);
+        }
+    }
+
+    /**
+     * Generates noise for an evenly spaced run of x values, as batchNoise does, into a float array.
+     *
+     * @param startX the first x to receive noise for.
+     * @param step   the distance between two consecutive x values.
+     * @param factor describes how large the noise should be, as in noise().
+     * @param out    receives the noise of startX + i * step at index i, for its whole length.
+     */
+    public void batchNoise(double startX, double step, double factor, float[] out) {
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (float) lineNoise(startX + i * step, factor);
+        }
+    }
+
+    private double lineNoise(double x, double factor) {
+        if (gradientsAtX == null) {
+            return noise(x, factor);
+        }
+        double value = 0.0;
+        for (double currentPoint : octaves) {
+            value += smoothLineNoise(x / currentPoint) * currentPoint;
+        }
+        return value * factor / startPoint;
+    }
+
+    private double smoothLineNoise(double x) {
+        // Offset the coordinate by the seed value, as smoothNoise does
+        x += this.seed;
+        x += this.seed;
+
+        double floorX = Math.floor(x);
+        int X = (int) floorX & 255; // FIND UNIT SEGMENT THAT CONTAINS POINT
+        x -= floorX;
+
+        return lerp(fade(x), gradientsAtX[X] * x, gradientsAtNextX[X] * (x - 1));
+    }
+
     private double smoothNoise(double x, double y, double z) {
         // Offset each coordinate by the seed value
         x += this.seed;
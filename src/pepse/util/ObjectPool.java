@@ -0,0 +1,113 @@
+package pepse.util;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe pool of reusable objects of one type.
+ * Objects are created by the factory only when the pool is empty, and are reset in place by
+ * whoever acquires them.
+ *
+ * @param <T> The type of the pooled objects.
+ */
+public class ObjectPool<T> {
+    private final Class<T> type;
+    private final Supplier<T> factory;
+    private final int capacity;
+    private final Deque<T> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructor for the ObjectPool class.
+     *
+     * @param type     The type of the pooled objects.
+     * @param factory  Creates a new object when the pool is empty.
+     * @param capacity The maximal number of idle objects kept; extra released objects are dropped.
+     */
+    public ObjectPool(Class<T> type, Supplier<T> factory, int capacity) {
+        this.type = type;
+        this.factory = factory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes an idle object from the pool, or creates a new one if the pool is empty.
+     * The object keeps the state it was released with and should be reset by the caller.
+     *
+     * @return An object of the pooled type.
+     */
+    public T acquire() {
+        T object = idle.pollFirst();
+        if (object == null) {
+            misses.incrementAndGet();
+            return factory.get();
+        }
+        idleCount.decrementAndGet();
+        hits.incrementAndGet();
+        return object;
+    }
+
+    /**
+     * Returns an object to the pool. The object must no longer be in use.
+     *
+     * @param object The object to return.
+     */
+    public void release(T object) {
+        if (idleCount.incrementAndGet() > capacity) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offerFirst(object);
+    }
+
+    /**
+     * Returns an object of unknown static type to the pool.
+     *
+     * @param object The object to return, which must be of the pooled type.
+     */
+    public void releaseObject(Object object) {
+        release(type.cast(object));
+    }
+
+    /**
+     * Returns the number of acquisitions served by an idle object.
+     *
+     * @return The number of pool hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of acquisitions that had to create a new object.
+     *
+     * @return The number of pool misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns the fraction of acquisitions served by an idle object.
+     *
+     * @return The hit rate, between 0 and 1, or 0 if nothing was acquired yet.
+     */
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : hits.get() / (double) total;
+    }
+
+    /**
+     * Returns the number of idle objects in the pool.
+     *
+     * @return The number of idle objects.
+     */
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+}
@@ -0,0 +1,186 @@
+package pepse.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * A hierarchical timer wheel for delayed world events.
+ * Time advances in fixed ticks. Each level of the wheel has 64 slots, every slot of a level
+ * spanning 64 times as many ticks as a slot of the level below, and an event waits in the slot
+ * of the lowest level that can hold its deadline. Whenever a lower level wraps around, the next
+ * slot of the level above is spread down into it, so scheduling and firing an event costs O(1)
+ * amortized per tick.
+ * Events are kept in primitive arrays: a handler, registered once, and a long payload telling
+ * the handler what the event is about.
+ */
+public class TimerWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final int NONE = -1;
+
+    private final float tickSeconds;
+    private final List<LongConsumer> handlers = new ArrayList<>();
+    private final int[] slotHeads = new int[LEVELS * SLOTS];
+    private int[] eventHandlers;
+    private long[] eventPayloads;
+    private long[] eventDeadlines;
+    private int[] eventNext;
+    private int freeHead = NONE;
+    private int pending = 0;
+    private long currentTick = 0;
+    private float accumulated = 0;
+
+    /**
+     * Constructor for the TimerWheel class.
+     *
+     * @param tickSeconds     The length of one tick, in seconds.
+     * @param initialCapacity The number of pending events to make room for up front.
+     */
+    public TimerWheel(float tickSeconds, int initialCapacity) {
+        this.tickSeconds = tickSeconds;
+        Arrays.fill(slotHeads, NONE);
+        eventHandlers = new int[0];
+        eventPayloads = new long[0];
+        eventDeadlines = new long[0];
+        eventNext = new int[0];
+        grow(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * Registers the code run by a kind of event.
+     *
+     * @param handler Called with the payload of each event of this kind when it fires.
+     * @return The id to schedule events of this kind with.
+     */
+    public int registerHandler(LongConsumer handler) {
+        handlers.add(handler);
+        return handlers.size() - 1;
+    }
+
+    /**
+     * Schedules an event. Events fire no sooner than the next tick, and no later than the
+     * wheel can reach.
+     *
+     * @param delaySeconds The time until the event fires, in seconds.
+     * @param handler      The id of the handler of the event.
+     * @param payload      The value passed to the handler.
+     */
+    public void schedule(float delaySeconds, int handler, long payload) {
+        if (freeHead == NONE) {
+            grow(eventHandlers.length * 2);
+        }
+        int event = freeHead;
+        freeHead = eventNext[event];
+        long delayTicks = Math.max(1, (long) Math.ceil(delaySeconds / tickSeconds));
+        eventHandlers[event] = handler;
+        eventPayloads[event] = payload;
+        eventDeadlines[event] = currentTick + delayTicks;
+        place(event);
+        pending++;
+    }
+
+    /**
+     * Returns the number of events that haven't fired yet.
+     *
+     * @return The number of pending events.
+     */
+    public int getPendingCount() {
+        return pending;
+    }
+
+    /**
+     * Advances the wheel by the time passed, firing every event that came due.
+     *
+     * @param deltaTime The time passed since the last advance, in seconds.
+     */
+    public void advance(float deltaTime) {
+        accumulated += deltaTime;
+        while (accumulated >= tickSeconds) {
+            accumulated -= tickSeconds;
+            tick();
+        }
+    }
+
+    /** Moves to the next tick: spreads down the upper levels that came due, then fires. */
+    private void tick() {
+        currentTick++;
+        cascade(1);
+        int slot = (int) (currentTick & SLOT_MASK);
+        int event = slotHeads[slot];
+        slotHeads[slot] = NONE;
+        while (event != NONE) {
+            int next = eventNext[event];
+            int handler = eventHandlers[event];
+            long payload = eventPayloads[event];
+            eventNext[event] = freeHead;
+            freeHead = event;
+            pending--;
+            handlers.get(handler).accept(payload);
+            event = next;
+        }
+    }
+
+    /**
+     * Spreads the current slot of a level down into the levels below it, once every level
+     * below has wrapped around.
+     *
+     * @param level The level to spread.
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS || ((currentTick >> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+            return;
+        }
+        cascade(level + 1);
+        int slot = level * SLOTS + (int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK);
+        int event = slotHeads[slot];
+        slotHeads[slot] = NONE;
+        while (event != NONE) {
+            int next = eventNext[event];
+            place(event);
+            event = next;
+        }
+    }
+
+    /**
+     * Puts an event in the slot of the lowest level that can hold its deadline.
+     *
+     * @param event The event.
+     */
+    private void place(int event) {
+        long deadline = eventDeadlines[event];
+        int level = 0;
+        while (level < LEVELS - 1
+                && (deadline >> (SLOT_BITS * level)) - (currentTick >> (SLOT_BITS * level)) >= SLOTS) {
+            level++;
+        }
+        long span = (deadline >> (SLOT_BITS * level)) - (currentTick >> (SLOT_BITS * level));
+        if (span >= SLOTS) {
+            // Beyond the reach of the wheel: wait in the furthest slot and be placed again later
+            deadline = ((currentTick >> (SLOT_BITS * level)) + SLOTS - 1) << (SLOT_BITS * level);
+        }
+        int slot = level * SLOTS + (int) ((deadline >> (SLOT_BITS * level)) & SLOT_MASK);
+        eventNext[event] = slotHeads[slot];
+        slotHeads[slot] = event;
+    }
+
+    /**
+     * Grows the event arrays and adds the new events to the free list.
+     *
+     * @param capacity The new number of events.
+     */
+    private void grow(int capacity) {
+        int oldCapacity = eventHandlers.length;
+        eventHandlers = Arrays.copyOf(eventHandlers, capacity);
+        eventPayloads = Arrays.copyOf(eventPayloads, capacity);
+        eventDeadlines = Arrays.copyOf(eventDeadlines, capacity);
+        eventNext = Arrays.copyOf(eventNext, capacity);
+        for (int event = capacity - 1; event >= oldCapacity; event--) {
+            eventNext[event] = freeHead;
+            freeHead = event;
+        }
+    }
+}
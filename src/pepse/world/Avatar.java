@@ -29,6 +29,7 @@ public class Avatar extends GameObject {
 
     private int objectsUnderFeetCount = 0;
     private boolean airborne = false;
+    private double notifiedEnergy = Double.NaN;
     private final Set<GameObject> objectsBelowFeetSet = new HashSet<>();
 
     private final Renderable[] idleClips;
@@ -123,8 +124,23 @@ public class Avatar extends GameObject {
         energyCallback = callback;
     }
 
+    /**
+     * Eats a fruit the avatar touched, restoring energy and notifying the energy callback.
+     *
+     * @param fruit The fruit that was eaten.
+     */
+    public void consumeFruit(GameObject fruit) {
+        this.energyHandler.ateFruit();
+        if (energyCallback != null) {
+            energyCallback.onFruitConsumed(fruit); // Notify the callback
+        }
+    }
+
     /**
      * Updates the avatar's state, handling movement, jumping, animations, and energy management.
+     * The input and the previous velocity are read once, the new velocity is set in one call
+     * through the transform's float setter, and the energy callback only hears of actual
+     * changes, so a frame allocates nothing.
      *
      * @param deltaTime The time elapsed, in seconds, since the last frame.
      */
@@ -132,47 +148,52 @@ public class Avatar extends GameObject {
     public void update(float deltaTime) {
         super.update(deltaTime);
 
+        boolean leftPressed = inputListener.isKeyPressed(Constants.MOVE_KEY_LEFT);
+        boolean rightPressed = inputListener.isKeyPressed(Constants.MOVE_KEY_RIGHT);
+        boolean jumpPressed = inputListener.isKeyPressed(Constants.MOVE_KEY_UP);
+        Vector2 previousVelocity = getVelocity();
+        float velocityY = previousVelocity.y();
+        boolean wasStill = previousVelocity.x() == 0 && velocityY == 0;
+        double energy = energyHandler.getEnergy();
+
         float horizontalVelocity = 0f;
         boolean onGround = (objectsUnderFeetCount > 0);
 
-        if (inputListener.isKeyPressed(Constants.MOVE_KEY_LEFT) &&
-                getCurrentEnergy() >= Constants.MIN_REQUIRED_ENERGY_RUNNING) {
+        if (leftPressed && energy >= Constants.MIN_REQUIRED_ENERGY_RUNNING) {
             horizontalVelocity -= Constants.AVATAR_MOVEMENT_SPEED;
-            this.energyHandler.runMode();
+            energy = this.energyHandler.runMode();
             if(!airborne){setAnimationState(AnimationState.RUNNING);}
             this.renderer().setIsFlippedHorizontally(true);
         }
-        if (inputListener.isKeyPressed(Constants.MOVE_KEY_RIGHT) &&
-                getCurrentEnergy() >= Constants.MIN_REQUIRED_ENERGY_RUNNING) {
+        if (rightPressed && energy >= Constants.MIN_REQUIRED_ENERGY_RUNNING) {
             horizontalVelocity += Constants.AVATAR_MOVEMENT_SPEED;
-            this.energyHandler.runMode();
+            energy = this.energyHandler.runMode();
             if(!airborne){setAnimationState(AnimationState.RUNNING);}
             this.renderer().setIsFlippedHorizontally(false);
         }
-        Vector2 currentVelocity = getVelocity();
         if(!onGround){
-            currentVelocity = currentVelocity.add(new Vector2(0,Constants.AVATAR_GRAVITY * deltaTime));
+            velocityY += Constants.AVATAR_GRAVITY * deltaTime;
         }
-        if(inputListener.isKeyPressed(Constants.MOVE_KEY_UP) && !airborne &&
-                this.getCurrentEnergy() >= Constants.MIN_REQUIRED_ENERGY_JUMPING){
-            currentVelocity = new Vector2(currentVelocity.x(), - Constants.AVATAR_JUMP_SPEED);
+        if(jumpPressed && !airborne && energy >= Constants.MIN_REQUIRED_ENERGY_JUMPING){
+            velocityY = -Constants.AVATAR_JUMP_SPEED;
             this.airborne = true;
-            this.energyHandler.jumpMode();
+            energy = this.energyHandler.jumpMode();
             setAnimationState(AnimationState.JUMPING);
             if(jumpCallback != null){
                 jumpCallback.onAvatarJump();
             }
         }
-        else if(getVelocity().equals(Vector2.ZERO)){
-            if (getCurrentEnergy() < Constants.MAX_ENERGY) {
-                this.energyHandler.idleMode();
+        else if(wasStill){
+            if (energy < Constants.MAX_ENERGY) {
+                energy = this.energyHandler.idleMode();
             }
             setAnimationState(AnimationState.IDLE);
         }
-        if (energyCallback != null) {
-            energyCallback.onEnergyChanged(getCurrentEnergy());
+        if (energyCallback != null && energy != notifiedEnergy) {
+            notifiedEnergy = energy;
+            energyCallback.onEnergyChanged(energy);
         }
-        setVelocity(new Vector2(horizontalVelocity, currentVelocity.y()));
+        transform().setVelocity(horizontalVelocity, velocityY);
     }
     /**
      * Sets the animation state for the avatar.
@@ -205,13 +226,6 @@ public class Avatar extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, danogl.collisions.Collision collision) {
         super.onCollisionEnter(other, collision);
-        if (other.getTag().equals("fruit")){
-            this.energyHandler.ateFruit();
-            if (energyCallback != null) {
-                energyCallback.onFruitConsumed(other); // Notify the callback
-            }
-            return;
-        }
         // If we collided with an object from above (normal pointing up toward us)
         if (collision.getNormal().y() < Constants.NORMAL_FOR_COLLISION) {
             objectsUnderFeetCount++;
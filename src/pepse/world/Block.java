@@ -19,7 +19,18 @@ public class Block extends GameObject {
      * @param renderable    The renderable defining the block's appearance.
      */
     public Block(Vector2 topLeftCorner, Renderable renderable) {
-        super(topLeftCorner, Vector2.ONES.mult(Constants.BLOCK_SIZE), renderable);
+        this(topLeftCorner, Vector2.ONES.mult(Constants.BLOCK_SIZE), renderable);
+    }
+
+    /**
+     * Constructor for creating a block with custom dimensions, e.g. a whole terrain column.
+     *
+     * @param topLeftCorner The top-left corner position of the block.
+     * @param dimensions    The width and height of the block.
+     * @param renderable    The renderable defining the block's appearance.
+     */
+    public Block(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
     }
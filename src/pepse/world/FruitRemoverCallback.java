@@ -1,9 +1,9 @@
 package pepse.world;
 
 import danogl.GameObject;
-import danogl.collisions.Layer;
 import pepse.GameObjectManager;
 import pepse.PepseGameManager;
+import pepse.util.Constants;
 
 /**
  * Callback class for handling fruit consumption events.
@@ -39,7 +39,7 @@ public class FruitRemoverCallback implements EnergyCallback {
     @Override
     public void onFruitConsumed(GameObject fruit) {
         if (fruit != null) {
-            this.gameManager.removeGameObject(fruit, Layer.STATIC_OBJECTS);
+            this.gameManager.removeGameObject(fruit, Constants.FRUIT_LAYER);
         }
     }
 }
@@ -0,0 +1,74 @@
+package pepse.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded, thread-safe cache of terrain heights, holding one array of column heights per chunk.
+ * When the cache is full, the least recently used chunk is evicted.
+ */
+public class HeightmapCache {
+    private final IntFunction<float[]> loader;
+    private final Map<Integer, float[]> heightmaps;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructor for the HeightmapCache class.
+     *
+     * @param capacity The maximal number of chunks kept in the cache.
+     * @param loader   Computes the column heights of a chunk, given its index.
+     */
+    public HeightmapCache(int capacity, IntFunction<float[]> loader) {
+        this.loader = loader;
+        this.heightmaps = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the column heights of a chunk, computing them if they aren't cached.
+     * The returned array must not be modified.
+     *
+     * @param chunk The index of the chunk.
+     * @return The heights of the chunk's columns, left to right.
+     */
+    public float[] get(int chunk) {
+        synchronized (this) {
+            float[] heightmap = heightmaps.get(chunk);
+            if (heightmap != null) {
+                hits++;
+                return heightmap;
+            }
+            misses++;
+        }
+        // Computed outside the lock so that other chunks can be served meanwhile
+        float[] heightmap = loader.apply(chunk);
+        synchronized (this) {
+            heightmaps.put(chunk, heightmap);
+        }
+        return heightmap;
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return The number of cache hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to compute a chunk's heights.
+     *
+     * @return The number of cache misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
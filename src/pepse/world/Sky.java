@@ -10,6 +10,7 @@ import java.awt.*;
 
 /**
  * A class to create the sky for the simulation, which serves as the background.
+ * The sky starts in its basic color, which the time of day then replaces with its gradient.
  */
 public class Sky {
 
@@ -4,26 +4,44 @@ package pepse.world;
 import danogl.GameObject;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
+import pepse.util.ChunkRandom;
 import pepse.util.ColorSupplier;
 import pepse.util.Constants;
 import pepse.util.NoiseGenerator;
+import pepse.util.ObjectPool;
 
 import java.awt.*;
 import java.util.*;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * Class that manages the creation and procedural generation of terrain in the simulation.
- * The terrain is represented as a collection of block GameObjects.
+ * The terrain is represented as a collection of columns, each with one collidable surface.
  */
 public class Terrain {
 
+    /** One renderable per ground color, shared by every column. */
+    private static final RectangleRenderable[] GROUND_RENDERABLES =
+            new RectangleRenderable[Constants.GROUND_COLORS.length];
+
+    static {
+        for (int i = 0; i < Constants.GROUND_COLORS.length; i++) {
+            GROUND_RENDERABLES[i] = new RectangleRenderable(Constants.GROUND_COLORS[i]);
+        }
+    }
+
     private final int seed;
     private float groundHeightAtX0;
     private NoiseGenerator noiseGenerator;
     private Vector2 windowDimensions;
 
-    private Random random = new Random();
+    private final HeightmapCache heightmapCache =
+            new HeightmapCache(Constants.HEIGHTMAP_CACHE_CHUNKS, this::computeChunkHeights);
+    private final ObjectPool<Block> surfacePool = new ObjectPool<>(Block.class,
+            () -> new Block(Vector2.ZERO, Vector2.ONES, null), Constants.OBJECT_POOL_CAPACITY);
+    private final ObjectPool<GameObject> fillPool = new ObjectPool<>(GameObject.class,
+            () -> new GameObject(Vector2.ZERO, Vector2.ONES, null), Constants.OBJECT_POOL_CAPACITY);
 
     /**
      * Constructor for the Terrain class.
@@ -40,11 +58,74 @@ public class Terrain {
 
     /**
      * Calculates the height of the ground at a given x-coordinate.
+     * Heights at block-aligned x-coordinates are served from the heightmap cache.
      *
      * @param x The x-coordinate.
      * @return The height of the ground at the given x-coordinate.
      */
     public float groundHeightAt(float x) {
+        int column = (int) Math.floor(x / Constants.BLOCK_SIZE);
+        if (column * Constants.BLOCK_SIZE == x) {
+            int chunk = Math.floorDiv(column, Constants.CHUNK_WIDTH);
+            return heightmapCache.get(chunk)[column - chunk * Constants.CHUNK_WIDTH];
+        }
+        return computeGroundHeightAt(x);
+    }
+
+    /**
+     * Returns the seed the terrain was generated from.
+     *
+     * @return The world seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the cache of column heights behind groundHeightAt.
+     *
+     * @return The heightmap cache.
+     */
+    public HeightmapCache getHeightmapCache() {
+        return heightmapCache;
+    }
+
+    /**
+     * Computes the heights of every column of a chunk, generating the chunk's noise in one batch.
+     *
+     * @param chunk The index of the chunk.
+     * @return The heights of the chunk's columns, left to right.
+     */
+    private float[] computeChunkHeights(int chunk) {
+        float[] baseNoise = new float[Constants.CHUNK_WIDTH];
+        float[] fineNoise = new float[Constants.CHUNK_WIDTH];
+        int firstX = chunk * Constants.CHUNK_WIDTH * Constants.BLOCK_SIZE;
+        noiseGenerator.batchNoise(firstX, Constants.BLOCK_SIZE,
+                Constants.BLOCK_SIZE * Constants.TERRAIN_BASE_NOISE_FACTOR, baseNoise);
+        noiseGenerator.batchNoise(firstX * Constants.TERRAIN_X_NOISE_FACTOR,
+                Constants.BLOCK_SIZE * Constants.TERRAIN_X_NOISE_FACTOR,
+                Constants.BLOCK_SIZE * Constants.TERRAIN_FINE_NOISE_FACTOR, fineNoise);
+
+        float[] heights = new float[Constants.CHUNK_WIDTH];
+        for (int i = 0; i < heights.length; i++) {
+            if (firstX + i * Constants.BLOCK_SIZE == 0) {
+                heights[i] = groundHeightAtX0;
+                continue;
+            }
+            float combinedNoise = baseNoise[i] * Constants.TERRAIN_BASE_NOISE_MULTIPLIER
+                    + fineNoise[i] * Constants.TERRAIN_FINE_NOISE_MULTIPLIER;
+            heights[i] = groundHeightAtX0 + combinedNoise;
+        }
+        return heights;
+    }
+
+    /**
+     * Calculates the height of the ground at a given x-coordinate from the noise.
+     *
+     * @param x The x-coordinate.
+     * @return The height of the ground at the given x-coordinate.
+     */
+    private float computeGroundHeightAt(float x) {
         if(x==0){
             return groundHeightAtX0;
         }
@@ -63,37 +144,98 @@ public class Terrain {
 
 
     /**
-     * Generates the terrain as blocks within a specified range.
+     * Generates the terrain as columns within a specified range.
+     * Each column gets a single collidable surface covering its top block and any side that is
+     * exposed by a lower neighbour, and a single non-colliding fill for the depth below it.
+     * Both are taken from the terrain's pools and should be released back once removed.
+     * The colors are drawn from the random stream of the chunk containing minX, so generating
+     * the same range again gives the same terrain.
      *
      * @param minX The minimum x-coordinate of the range.
      * @param maxX The maximum x-coordinate of the range.
-     * @return A list of Block objects representing the terrain.
+     * @return A list of TerrainColumn objects representing the terrain.
      */
-    public List<Block> createInRange(int minX, int maxX) {
+    public List<TerrainColumn> createInRange(int minX, int maxX) {
         // Ensure minX and maxX are aligned with BLOCK_SIZE
         minX = (int) Math.floor(minX / (double) Constants.BLOCK_SIZE) * (int) Constants.BLOCK_SIZE;
         maxX = (int) Math.ceil(maxX / (double) Constants.BLOCK_SIZE) * (int) Constants.BLOCK_SIZE;
 
-        List<Block> blockArray = new ArrayList<>();
-
-        // Generate new blocks and cache them
-        for (int x = minX; x < maxX; x += Constants.BLOCK_SIZE) {
-            // Generate new blocks
-            int groundHeight = (int) (Math.floor(groundHeightAt(x) /
-                    Constants.BLOCK_SIZE) * Constants.BLOCK_SIZE);
-            List<Block> newBlocks = new ArrayList<>();
-
-            for (int y = groundHeight; y < groundHeight + Constants.BLOCK_SIZE * Constants.TERRAIN_DEPTH;
-                 y += Constants.BLOCK_SIZE) {
-                Vector2 blockPosition = new Vector2(x, y);
-                RectangleRenderable groundRenderable = new RectangleRenderable(
-                        ColorSupplier.chooseRandomColor(Constants.GROUND_COLORS));
-                Block block = new Block(blockPosition, groundRenderable);
-                block.setTag("ground");
-                newBlocks.add(block);
+        // Heights of every column in range, plus one neighbour on each side
+        int columns = (maxX - minX) / Constants.BLOCK_SIZE;
+        int[] groundHeights = new int[columns + 2];
+        for (int i = 0; i < groundHeights.length; i++) {
+            groundHeights[i] = alignedGroundHeightAt(minX + (i - 1) * Constants.BLOCK_SIZE);
+        }
+
+        RandomGenerator random = ChunkRandom.forChunkAt(seed, minX, ChunkRandom.Purpose.TERRAIN);
+        List<TerrainColumn> columnArray = new ArrayList<>();
+        int terrainBottomOffset = Constants.BLOCK_SIZE * Constants.TERRAIN_DEPTH;
+        for (int i = 1; i <= columns; i++) {
+            int x = minX + (i - 1) * Constants.BLOCK_SIZE;
+            int groundHeight = groundHeights[i];
+
+            // The surface reaches down to the lower neighbour so the avatar can't walk into a step
+            int exposedBottom = Math.max(groundHeights[i - 1], groundHeights[i + 1]);
+            int surfaceHeight = Math.max(Constants.BLOCK_SIZE, exposedBottom - groundHeight);
+            surfaceHeight = Math.min(surfaceHeight, terrainBottomOffset - Constants.BLOCK_SIZE);
+
+            Block surface = surfacePool.acquire();
+            surface.setTopLeftCorner(new Vector2(x, groundHeight));
+            surface.setDimensions(new Vector2(Constants.BLOCK_SIZE, surfaceHeight));
+            surface.renderer().setRenderable(randomGroundRenderable(random));
+            surface.setTag("ground");
+
+            GameObject fill = fillPool.acquire();
+            fill.setTopLeftCorner(new Vector2(x, groundHeight + surfaceHeight));
+            fill.setDimensions(new Vector2(Constants.BLOCK_SIZE, terrainBottomOffset - surfaceHeight));
+            fill.renderer().setRenderable(randomGroundRenderable(random));
+            fill.setTag("ground");
+            columnArray.add(new TerrainColumn(surface, fill));
+        }
+        return columnArray;
+    }
+
+    /**
+     * Returns the pool of column surfaces.
+     *
+     * @return The pool the column surfaces are taken from.
+     */
+    public ObjectPool<Block> getSurfacePool() {
+        return surfacePool;
+    }
+
+    /**
+     * Returns the pool of column fills.
+     *
+     * @return The pool the column fills are taken from.
+     */
+    public ObjectPool<GameObject> getFillPool() {
+        return fillPool;
+    }
+
+    /**
+     * Calculates the height of the ground at a given x-coordinate, aligned to the block grid.
+     *
+     * @param x The x-coordinate.
+     * @return The y-coordinate of the top of the column at x.
+     */
+    private int alignedGroundHeightAt(int x) {
+        return (int) (Math.floor(groundHeightAt(x) / Constants.BLOCK_SIZE) * Constants.BLOCK_SIZE);
+    }
+
+    /**
+     * Returns one of the shared ground renderables, biased the same way as the ground colors.
+     *
+     * @param random The random stream to draw from.
+     * @return A RectangleRenderable in one of the ground colors.
+     */
+    private static RectangleRenderable randomGroundRenderable(RandomGenerator random) {
+        Color color = ColorSupplier.chooseRandomColor(Constants.GROUND_COLORS, random);
+        for (int i = 0; i < Constants.GROUND_COLORS.length; i++) {
+            if (Constants.GROUND_COLORS[i] == color) {
+                return GROUND_RENDERABLES[i];
             }
-            blockArray.addAll(newBlocks);
         }
-        return blockArray;
+        return GROUND_RENDERABLES[0];
     }
 }
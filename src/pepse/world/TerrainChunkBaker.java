@@ -0,0 +1,55 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import pepse.util.ColorSupplier;
+import pepse.util.Constants;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.random.RandomGenerator;
+
+/**
+ * A class that rasterizes a whole chunk of terrain into a single image-backed GameObject,
+ * so that a chunk is drawn with one call instead of one call per block.
+ * The baker keeps no state, so chunks can be baked on any thread.
+ */
+public class TerrainChunkBaker {
+
+    /**
+     * Draws every block of the chunk into one image, TERRAIN_DEPTH blocks below each column's top.
+     *
+     * @param minX          The x-coordinate of the chunk's left edge.
+     * @param groundHeights The y-coordinate of the top of each column in the chunk, left to right.
+     * @param random        The random stream the block colors are drawn from.
+     * @return A GameObject covering the chunk, rendered with the baked image.
+     */
+    public GameObject bake(int minX, int[] groundHeights, RandomGenerator random) {
+        int columnDepth = Constants.BLOCK_SIZE * Constants.TERRAIN_DEPTH;
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (int groundHeight : groundHeights) {
+            top = Math.min(top, groundHeight);
+            bottom = Math.max(bottom, groundHeight + columnDepth);
+        }
+
+        int width = groundHeights.length * Constants.BLOCK_SIZE;
+        BufferedImage image = new BufferedImage(width, bottom - top, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int column = 0; column < groundHeights.length; column++) {
+            int x = column * Constants.BLOCK_SIZE;
+            for (int y = groundHeights[column] - top; y < groundHeights[column] - top + columnDepth;
+                 y += Constants.BLOCK_SIZE) {
+                graphics.setColor(ColorSupplier.chooseRandomColor(Constants.GROUND_COLORS, random));
+                graphics.fillRect(x, y, Constants.BLOCK_SIZE, Constants.BLOCK_SIZE);
+            }
+        }
+        graphics.dispose();
+
+        GameObject sprite = new GameObject(new Vector2(minX, top), new Vector2(width, bottom - top),
+                new ImageRenderable(image));
+        sprite.setTag("ground");
+        return sprite;
+    }
+}
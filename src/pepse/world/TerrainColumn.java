@@ -0,0 +1,41 @@
+package pepse.world;
+
+import danogl.GameObject;
+
+/**
+ * A class that represents a single column of terrain, pairing its collidable surface
+ * with the non-colliding fill that covers the depth below it.
+ */
+public class TerrainColumn {
+    private final Block surface;
+    private final GameObject fill;
+
+    /**
+     * Constructor for creating a TerrainColumn object.
+     *
+     * @param surface The collidable block covering the exposed top and sides of the column.
+     * @param fill    The non-colliding GameObject covering the rest of the column's depth.
+     */
+    public TerrainColumn(Block surface, GameObject fill) {
+        this.surface = surface;
+        this.fill = fill;
+    }
+
+    /**
+     * Returns the collidable surface of the column.
+     *
+     * @return The Block the avatar collides with.
+     */
+    public Block getSurface() {
+        return surface;
+    }
+
+    /**
+     * Returns the fill of the column.
+     *
+     * @return The non-colliding GameObject below the surface.
+     */
+    public GameObject getFill() {
+        return fill;
+    }
+}
@@ -0,0 +1,51 @@
+package pepse.world.daynight;
+
+import pepse.util.Constants;
+
+import java.awt.*;
+
+/**
+ * The levels of the ambient light, and the tints they give to colors.
+ * The light of the time of day is quantized into a few levels, so everything tinted by it can
+ * prepare one color or image per level up front and switch between them, instead of darkening
+ * anything while drawing.
+ */
+public class AmbientLight {
+
+    /**
+     * Returns the level of the ambient light for a darkness.
+     *
+     * @param darkness The darkness, from 0 at noon to 1 at midnight.
+     * @return The level, from 0 at full light up to AMBIENT_LIGHT_LEVELS - 1 at midnight.
+     */
+    public static int levelOf(float darkness) {
+        return Math.round(darkness * (Constants.AMBIENT_LIGHT_LEVELS - 1));
+    }
+
+    /**
+     * Returns the fraction of the light that a level lets through.
+     *
+     * @param level The ambient light level.
+     * @return The light, from 1 at full light down to 1 - MIDNIGHT_DARKNESS at midnight.
+     */
+    public static float lightOf(int level) {
+        return 1 - Constants.MIDNIGHT_DARKNESS * level / (Constants.AMBIENT_LIGHT_LEVELS - 1);
+    }
+
+    /**
+     * Tints a color by every level of the ambient light, keeping its alpha.
+     *
+     * @param color The color at full light.
+     * @return The tinted colors, indexed by level.
+     */
+    public static Color[] tints(Color color) {
+        Color[] tints = new Color[Constants.AMBIENT_LIGHT_LEVELS];
+        for (int level = 0; level < tints.length; level++) {
+            float light = lightOf(level);
+            tints[level] = new Color(Math.round(color.getRed() * light),
+                    Math.round(color.getGreen() * light), Math.round(color.getBlue() * light),
+                    color.getAlpha());
+        }
+        return tints;
+    }
+}
@@ -0,0 +1,17 @@
+package pepse.world.daynight;
+
+/**
+ * Interface for the parts of the world that keep their own renderables tinted by the ambient
+ * light of the time of day.
+ */
+public interface AmbientLightListener {
+
+    /**
+     * Called when the ambient light changed to another level, and once when the listener is
+     * added to the time of day.
+     *
+     * @param level The ambient light level, from 0 at full light up to
+     *              AMBIENT_LIGHT_LEVELS - 1 at midnight.
+     */
+    void onAmbientLevelChanged(int level);
+}
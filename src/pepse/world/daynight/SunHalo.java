@@ -10,13 +10,13 @@ import pepse.util.Constants;
 import java.awt.*;
 
 /**
- * A class responsible for creating and managing the halo effect around the sun.
+ * A class responsible for creating the halo effect around the sun.
  */
 public class SunHalo {
 
 
     /**
-     * Creates a halo for the sun and ensures it follows the sun's position each frame.
+     * Creates a halo centered on the sun. TimeOfDay keeps it on the sun as the sun moves.
      *
      * @param sun The GameObject representing the sun.
      * @return A GameObject representing the sun's halo.
@@ -29,11 +29,8 @@ public class SunHalo {
 
         GameObject sunHalo = new GameObject(sun.getTopLeftCorner(),
                 haloDimensions, new OvalRenderable(Constants.HALO_COLOR));
+        sunHalo.setCenter(sunCenter);
         sunHalo.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-
-        sunHalo.addComponent(deltaTime -> {
-            sunHalo.setCenter(sun.getCenter());
-        });
         return sunHalo;
     }
 }
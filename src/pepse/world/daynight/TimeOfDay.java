@@ -0,0 +1,189 @@
+package pepse.world.daynight;
+
+import danogl.GameObject;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The single clock of the day-night cycle.
+ * The cycle is split into a fixed number of time buckets, and everything that depends on the
+ * time of day is computed once per bucket into lookup tables: the center of the sun, the level
+ * of the ambient light, and the gradient of the sky, baked into a one pixel wide image that the
+ * renderer stretches over the window. Each frame, the clock advances and moves the sun and its
+ * halo, interpolating between neighbouring buckets. Only when the bucket changes does it swap
+ * the sky's image, and only when the ambient light level changes does it tell the listeners,
+ * which switch to the colors they prepared for that level.
+ * Night is shown by the sky and the tinted renderables themselves, never by an overlay blended
+ * over the whole window.
+ * The cycle starts at noon.
+ */
+public class TimeOfDay {
+    private final float cycleLength;
+    private final float[] sunCenterX = new float[Constants.TIME_OF_DAY_BUCKETS + 1];
+    private final float[] sunCenterY = new float[Constants.TIME_OF_DAY_BUCKETS + 1];
+    private final int[] ambientLevels = new int[Constants.TIME_OF_DAY_BUCKETS];
+    private final Renderable[] skyGradients = new Renderable[Constants.TIME_OF_DAY_BUCKETS];
+    private final GameObject sky;
+    private final GameObject sun;
+    private final GameObject sunHalo;
+    private final List<AmbientLightListener> ambientListeners = new ArrayList<>();
+    private final float sunHalfSize;
+    private final float haloHalfSize;
+    private float time = 0;
+    private int bucket = -1;
+    private int ambientLevel = 0;
+
+    /**
+     * Constructor for the TimeOfDay class. Builds the lookup tables and shows noon.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param cycleLength      The length of a full day-night cycle in seconds.
+     * @param sky              The sky, whose renderable is replaced by the gradient of the hour.
+     * @param sun              The sun, moved around its circle.
+     * @param sunHalo          The halo, kept centered on the sun.
+     */
+    public TimeOfDay(Vector2 windowDimensions, float cycleLength, GameObject sky, GameObject sun,
+                     GameObject sunHalo) {
+        this.cycleLength = cycleLength;
+        this.sky = sky;
+        this.sun = sun;
+        this.sunHalo = sunHalo;
+        this.sunHalfSize = sun.getDimensions().x() / Constants.HALF;
+        this.haloHalfSize = sunHalo.getDimensions().x() / Constants.HALF;
+        float horizonY = windowDimensions.y() * Constants.SUN_OFFSET_FACTOR_SCREEN;
+        float cycleCenterX = windowDimensions.x() / Constants.HALF;
+        for (int i = 0; i <= Constants.TIME_OF_DAY_BUCKETS; i++) {
+            float phase = (float) i / Constants.TIME_OF_DAY_BUCKETS;
+            double angle = Math.toRadians(Constants.SUN_INITIAL_ANGLE
+                    + phase * (Constants.SUN_FINAL_ANGLE - Constants.SUN_INITIAL_ANGLE));
+            // The sun starts above the center of its circle and turns clockwise on screen
+            sunCenterX[i] = cycleCenterX + (float) (Constants.SUN_INIT_OFFSET * Math.sin(angle));
+            sunCenterY[i] = horizonY - (float) (Constants.SUN_INIT_OFFSET * Math.cos(angle));
+        }
+        int skyHeight = Math.max(1, Math.round(windowDimensions.y()));
+        for (int i = 0; i < Constants.TIME_OF_DAY_BUCKETS; i++) {
+            float phase = (float) i / Constants.TIME_OF_DAY_BUCKETS;
+            ambientLevels[i] = AmbientLight.levelOf(darkness(phase));
+            skyGradients[i] = createSkyGradient(phase, horizonY, skyHeight);
+        }
+        update(0);
+    }
+
+    /**
+     * Returns how far the current day has progressed.
+     *
+     * @return The phase of the cycle, from 0 at noon up to 1.
+     */
+    public float getPhase() {
+        return time / cycleLength;
+    }
+
+    /**
+     * Adds a listener to the ambient light, telling it the current level right away.
+     *
+     * @param listener The listener, told the level whenever it changes.
+     */
+    public void addAmbientLightListener(AmbientLightListener listener) {
+        ambientListeners.add(listener);
+        listener.onAmbientLevelChanged(ambientLevel);
+    }
+
+    /**
+     * Advances the clock and pushes the time of day to the sun, halo and sky, and to the ambient
+     * light listeners when the level changes.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    public void update(float deltaTime) {
+        time = (time + deltaTime) % cycleLength;
+        float position = getPhase() * Constants.TIME_OF_DAY_BUCKETS;
+        int current = Math.min((int) position, Constants.TIME_OF_DAY_BUCKETS - 1);
+        float fraction = position - current;
+
+        float centerX = lerp(sunCenterX, current, fraction);
+        float centerY = lerp(sunCenterY, current, fraction);
+        sun.transform().setTopLeftCorner(centerX - sunHalfSize, centerY - sunHalfSize);
+        sunHalo.transform().setTopLeftCorner(centerX - haloHalfSize, centerY - haloHalfSize);
+
+        if (current != bucket) {
+            bucket = current;
+            sky.renderer().setRenderable(skyGradients[current]);
+            if (ambientLevels[current] != ambientLevel) {
+                ambientLevel = ambientLevels[current];
+                for (int i = 0; i < ambientListeners.size(); i++) {
+                    ambientListeners.get(i).onAmbientLevelChanged(ambientLevel);
+                }
+            }
+        }
+    }
+
+    /**
+     * Interpolates a lookup table between a bucket and the next one.
+     *
+     * @param table    The lookup table, with one more entry than there are buckets.
+     * @param bucket   The current bucket.
+     * @param fraction How far the time is into the bucket, from 0 to 1.
+     * @return The interpolated value.
+     */
+    private static float lerp(float[] table, int bucket, float fraction) {
+        return table[bucket] + (table[bucket + 1] - table[bucket]) * fraction;
+    }
+
+    /**
+     * Returns how dark it is at a time of day, easing in and out of midnight.
+     *
+     * @param phase The phase of the cycle, from 0 at noon to 1.
+     * @return The darkness, from 0 at noon to 1 at midnight.
+     */
+    private static float darkness(float phase) {
+        float t = phase < 0.5f ? phase * Constants.HALF : Constants.HALF - phase * Constants.HALF;
+        return t * t * (3 - 2 * t);
+    }
+
+    /**
+     * Bakes the sky gradient of a time of day: from the top of the sky down to the horizon,
+     * darkening towards midnight and glowing while the sun is near the horizon.
+     *
+     * @param phase     The phase of the cycle, from 0 at noon to 1.
+     * @param horizonY  The height of the horizon in the window.
+     * @param skyHeight The height of the sky image, in pixels.
+     * @return A one pixel wide image of the gradient, to be stretched over the sky.
+     */
+    private static Renderable createSkyGradient(float phase, float horizonY, int skyHeight) {
+        float darkness = darkness(phase);
+        double sunHeight = Math.cos(Math.toRadians(Constants.SUN_INITIAL_ANGLE
+                + phase * (Constants.SUN_FINAL_ANGLE - Constants.SUN_INITIAL_ANGLE)));
+        float dusk = (float) Math.max(0, 1 - Math.abs(sunHeight) / Constants.SKY_DUSK_WIDTH);
+        Color top = mix(Constants.SKY_DAY_TOP_COLOR, Constants.SKY_NIGHT_TOP_COLOR, darkness);
+        Color horizon = mix(
+                mix(Constants.BASIC_SKY_COLOR, Constants.SKY_NIGHT_HORIZON_COLOR, darkness),
+                Constants.SKY_DUSK_COLOR, dusk * Constants.SKY_DUSK_STRENGTH);
+        BufferedImage strip = new BufferedImage(1, skyHeight, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < skyHeight; y++) {
+            strip.setRGB(0, y, mix(top, horizon, Math.min(1f, y / horizonY)).getRGB());
+        }
+        return new ImageRenderable(strip);
+    }
+
+    /**
+     * Mixes two colors.
+     *
+     * @param from   The color at an amount of 0.
+     * @param to     The color at an amount of 1.
+     * @param amount How much of the second color to take.
+     * @return The mixed color.
+     */
+    private static Color mix(Color from, Color to, float amount) {
+        return new Color(
+                Math.round(from.getRed() + (to.getRed() - from.getRed()) * amount),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * amount),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * amount));
+    }
+}
@@ -0,0 +1,259 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import pepse.AttachmentListener;
+import pepse.GameObjectManager;
+import pepse.util.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expands the baked canopies near the avatar into individual leaves and fruits, and collapses
+ * them back into one image once the avatar moves away. Canopies further away, on screen or not,
+ * stay baked.
+ * A canopy expands within the expand distance and collapses only past the larger collapse
+ * distance, so standing at the edge doesn't expand and collapse it every frame.
+ * Canopies are kept sorted by their x-coordinate. They are only checked again once the focus
+ * crosses into another check step, and then only the expanded ones and those within the expand
+ * distance of the focus. A frame in which the focus stays within its step costs nothing.
+ */
+public class CanopyExpander implements AttachmentListener {
+    private final TreeGenerator treeGenerator;
+    private final GameObjectManager objectManager;
+    private final List<CanopySprite> canopies = new ArrayList<>();
+    private final List<CanopySprite> expandedCanopies = new ArrayList<>();
+    private float expandDistance;
+    private float collapseDistance;
+    private int checkedStep = Integer.MIN_VALUE;
+    private boolean recheck = true;
+
+    /**
+     * Constructor for the CanopyExpander class.
+     *
+     * @param treeGenerator The tree generator whose pools and canopy sway the leaves and fruits
+     *                      come from.
+     * @param objectManager The manager used to add and remove the leaves and fruits.
+     */
+    public CanopyExpander(TreeGenerator treeGenerator, GameObjectManager objectManager) {
+        this.treeGenerator = treeGenerator;
+        this.objectManager = objectManager;
+        setDistances(Constants.CANOPY_EXPAND_DISTANCE, Constants.CANOPY_COLLAPSE_DISTANCE);
+    }
+
+    /**
+     * Sets the distances at which canopies expand and collapse.
+     *
+     * @param expandDistance   Canopies closer than this to the focus are expanded.
+     * @param collapseDistance Expanded canopies further than this from the focus are collapsed.
+     */
+    public void setDistances(float expandDistance, float collapseDistance) {
+        this.expandDistance = expandDistance;
+        this.collapseDistance = Math.max(expandDistance, collapseDistance);
+        this.recheck = true;
+    }
+
+    /**
+     * Returns the number of canopies in the world.
+     *
+     * @return The number of baked canopies being tracked.
+     */
+    public int getCanopyCount() {
+        return canopies.size();
+    }
+
+    /**
+     * Returns the number of expanded canopies.
+     *
+     * @return The number of canopies drawn as individual leaves and fruits.
+     */
+    public int getExpandedCount() {
+        return expandedCanopies.size();
+    }
+
+    /**
+     * Starts tracking a canopy once it was added to the world, choosing its image and adding the
+     * fruits it keeps next to it by the fruits eaten so far.
+     *
+     * @param gameObject The canopy sprite.
+     */
+    @Override
+    public void onAttached(GameObject gameObject) {
+        if (gameObject instanceof CanopySprite) {
+            CanopySprite canopy = (CanopySprite) gameObject;
+            canopies.add(firstIndexFrom(canopy.getCenterX()), canopy);
+            treeGenerator.refreshCanopyFruits(canopy);
+            addFruits(canopy);
+            recheck = true;
+        }
+    }
+
+    /**
+     * Stops tracking a canopy once it was removed from the world, removing its leaves and fruits
+     * and returning them to the pools.
+     *
+     * @param gameObject The canopy sprite.
+     */
+    @Override
+    public void onDetached(GameObject gameObject) {
+        if (gameObject instanceof CanopySprite && canopies.remove(gameObject)) {
+            CanopySprite canopy = (CanopySprite) gameObject;
+            removeLeaves(canopy);
+            removeFruits(canopy);
+            treeGenerator.releaseCanopyObjects(canopy);
+            if (canopy.isExpanded()) {
+                expandedCanopies.remove(canopy);
+            }
+        }
+    }
+
+    /**
+     * Grows an eaten fruit back on the canopy in the world it belongs to, if any: as an
+     * individual fruit, and in the image of a collapsed canopy that has no eaten fruit left.
+     *
+     * @param chunk The chunk of the fruit.
+     * @param slot  The slot of the fruit within its chunk.
+     */
+    public void regrowFruit(int chunk, int slot) {
+        for (int i = 0; i < canopies.size(); i++) {
+            CanopySprite canopy = canopies.get(i);
+            int firstSlot = canopy.getFirstFruitSlot();
+            if (canopy.getChunk() == chunk && slot >= firstSlot
+                    && slot < firstSlot + canopy.getTemplate().getFruitCount()) {
+                removeFruits(canopy);
+                treeGenerator.refreshCanopyFruits(canopy);
+                addFruits(canopy);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Expands the canopies that came within the expand distance and collapses the ones that
+     * went past the collapse distance, once the focus moved into another check step or canopies
+     * were added.
+     *
+     * @param focusX The x-coordinate the distances are measured from, usually the avatar's.
+     */
+    public void update(float focusX) {
+        int step = (int) Math.floor(focusX / Constants.CANOPY_CHECK_STEP);
+        if (step == checkedStep && !recheck) {
+            return;
+        }
+        checkedStep = step;
+        recheck = false;
+
+        for (int i = expandedCanopies.size() - 1; i >= 0; i--) {
+            CanopySprite canopy = expandedCanopies.get(i);
+            if (Math.abs(canopy.getCenterX() - focusX) > collapseDistance) {
+                collapse(canopy);
+                expandedCanopies.remove(i);
+            }
+        }
+        for (int i = firstIndexFrom(focusX - expandDistance); i < canopies.size(); i++) {
+            CanopySprite canopy = canopies.get(i);
+            if (canopy.getCenterX() - focusX >= expandDistance) {
+                break;
+            }
+            if (!canopy.isExpanded()) {
+                expand(canopy);
+                expandedCanopies.add(canopy);
+            }
+        }
+    }
+
+    /**
+     * Finds the first canopy whose center is at or right of an x-coordinate.
+     *
+     * @param x The x-coordinate.
+     * @return The index of the first such canopy, or the number of canopies if there is none.
+     */
+    private int firstIndexFrom(float x) {
+        int low = 0;
+        int high = canopies.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (canopies.get(middle).getCenterX() < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Adds the individual leaves and fruits of a canopy to the world, in place of the fruits it
+     * kept while collapsed.
+     *
+     * @param canopy The canopy.
+     */
+    private void expand(CanopySprite canopy) {
+        removeFruits(canopy);
+        treeGenerator.expandCanopy(canopy);
+        addFruits(canopy);
+        CanopySway canopySway = treeGenerator.getCanopySway();
+        for (GameObject leaf : canopy.getLeaves()) {
+            objectManager.addGameObject(leaf, Layer.FOREGROUND);
+            canopySway.add(leaf);
+        }
+    }
+
+    /**
+     * Removes the individual leaves and fruits of a canopy from the world, keeping only the
+     * fruits that weren't eaten if it is then drawn without fruit.
+     *
+     * @param canopy The canopy.
+     */
+    private void collapse(CanopySprite canopy) {
+        removeLeaves(canopy);
+        removeFruits(canopy);
+        treeGenerator.collapseCanopy(canopy);
+        addFruits(canopy);
+    }
+
+    /**
+     * Adds the fruits recorded in a canopy to the world, the canopy sway and the fruit index.
+     *
+     * @param canopy The canopy.
+     */
+    private void addFruits(CanopySprite canopy) {
+        CanopySway canopySway = treeGenerator.getCanopySway();
+        FruitIndex fruitIndex = treeGenerator.getFruitIndex();
+        for (GameObject fruit : canopy.getFruits()) {
+            objectManager.addGameObject(fruit, Constants.FRUIT_LAYER);
+            canopySway.add(fruit);
+            fruitIndex.add((Fruit) fruit);
+        }
+    }
+
+    /**
+     * Removes the leaves recorded in a canopy from the world and the canopy sway.
+     *
+     * @param canopy The canopy.
+     */
+    private void removeLeaves(CanopySprite canopy) {
+        CanopySway canopySway = treeGenerator.getCanopySway();
+        for (GameObject leaf : canopy.getLeaves()) {
+            canopySway.remove(leaf);
+            objectManager.removeGameObject(leaf, Layer.FOREGROUND);
+        }
+    }
+
+    /**
+     * Removes the fruits recorded in a canopy from the world, the canopy sway and the fruit
+     * index. Fruits that were eaten are already gone from all three.
+     *
+     * @param canopy The canopy.
+     */
+    private void removeFruits(CanopySprite canopy) {
+        CanopySway canopySway = treeGenerator.getCanopySway();
+        FruitIndex fruitIndex = treeGenerator.getFruitIndex();
+        for (GameObject fruit : canopy.getFruits()) {
+            canopySway.remove(fruit);
+            fruitIndex.remove((Fruit) fruit);
+            objectManager.removeGameObject(fruit, Constants.FRUIT_LAYER);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The canopy of a tree drawn as one image, together with the tree variant it was drawn from.
+ * While the avatar is near, the canopy is expanded: the image is hidden and the variant's grid is
+ * turned into individual animated leaves and fruits, which are dropped again once the avatar
+ * leaves. Once any of the tree's fruits was eaten, the canopy is drawn without fruit, and the
+ * fruits that weren't eaten are kept in the world as individual fruits next to it.
+ */
+public class CanopySprite extends GameObject {
+    private final TreeTemplate template;
+    private final int chunk;
+    private final int firstFruitSlot;
+    private final List<GameObject> leaves = new ArrayList<>();
+    private final List<GameObject> fruits = new ArrayList<>();
+    private final float centerX;
+    private boolean expanded = false;
+    private boolean fruitEaten = false;
+
+    /**
+     * Constructor for the CanopySprite class.
+     *
+     * @param topLeft        The top left corner of the canopy grid.
+     * @param template       The tree variant the canopy is drawn from.
+     * @param chunk          The chunk the tree belongs to.
+     * @param firstFruitSlot The slot of the tree's first fruit within its chunk.
+     */
+    public CanopySprite(Vector2 topLeft, TreeTemplate template, int chunk, int firstFruitSlot) {
+        super(topLeft, new Vector2(template.getCanopySize(), template.getCanopySize()),
+                template.getCanopyRenderable());
+        this.template = template;
+        this.chunk = chunk;
+        this.firstFruitSlot = firstFruitSlot;
+        this.centerX = topLeft.x() + template.getCanopySize() / 2f;
+    }
+
+    /**
+     * Returns the x-coordinate of the canopy's center, which never changes.
+     *
+     * @return The x-coordinate of the center of the canopy.
+     */
+    public float getCenterX() {
+        return centerX;
+    }
+
+    /**
+     * Returns the tree variant the canopy is drawn from.
+     *
+     * @return The tree template.
+     */
+    public TreeTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the chunk the tree belongs to.
+     *
+     * @return The index of the chunk.
+     */
+    public int getChunk() {
+        return chunk;
+    }
+
+    /**
+     * Returns the slot of the tree's first fruit within its chunk.
+     *
+     * @return The first fruit slot.
+     */
+    public int getFirstFruitSlot() {
+        return firstFruitSlot;
+    }
+
+    /**
+     * Returns the individual leaves of the canopy while it is expanded.
+     *
+     * @return The leaves, empty while the canopy is drawn as one image.
+     */
+    public List<GameObject> getLeaves() {
+        return leaves;
+    }
+
+    /**
+     * Returns the individual fruits of the canopy: all of them while it is expanded, and the
+     * ones not eaten while it is collapsed and drawn without fruit.
+     *
+     * @return The fruits, empty while the canopy is drawn with all its fruits in one image.
+     */
+    public List<GameObject> getFruits() {
+        return fruits;
+    }
+
+    /**
+     * Returns whether the canopy is expanded into individual leaves and fruits.
+     *
+     * @return True if the canopy is expanded.
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Sets whether any of the tree's fruits was eaten, which decides the image shown while the
+     * canopy is collapsed.
+     *
+     * @param fruitEaten True if a fruit of the tree was eaten.
+     */
+    public void setFruitEaten(boolean fruitEaten) {
+        this.fruitEaten = fruitEaten;
+        if (!expanded) {
+            renderer().setRenderable(collapsedRenderable());
+        }
+    }
+
+    /**
+     * Shows or hides the canopy image, for when the canopy is collapsed or expanded.
+     *
+     * @param expanded True if the canopy is now drawn as individual leaves and fruits.
+     */
+    public void setExpanded(boolean expanded) {
+        this.expanded = expanded;
+        renderer().setRenderable(expanded ? null : collapsedRenderable());
+    }
+
+    /**
+     * Returns the image shown while the canopy is collapsed.
+     *
+     * @return The full canopy image, or the leaves-only image once a fruit was eaten.
+     */
+    private Renderable collapsedRenderable() {
+        return fruitEaten ? template.getLeavesOnlyRenderable() : template.getCanopyRenderable();
+    }
+}
@@ -0,0 +1,252 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.AttachmentListener;
+import pepse.util.Constants;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Animates every leaf and fruit in the world from a single update per frame.
+ * Leaves sway their angle and stretch their width, fruits sway their angle and bob below their
+ * anchor, all following a triangle wave with a phase of their own. The state of the animated
+ * objects is kept in primitive arrays and the leaf widths are looked up from a table, so an
+ * update allocates nothing.
+ * Animation is level-of-detail by horizontal distance from a focus point: objects within the
+ * full rate distance update every frame, objects up to the visible distance update every few
+ * frames, and objects further away are frozen until they come back into range.
+ */
+public class CanopySway implements AttachmentListener {
+
+    /** The leaf dimensions along one half of the wave, from narrowest to widest. */
+    private static final Vector2[] LEAF_DIMENSIONS = new Vector2[Constants.SWAY_WIDTH_STEPS];
+
+    static {
+        for (int i = 0; i < LEAF_DIMENSIONS.length; i++) {
+            float stretch = Constants.ADDED_DIMENSION_LEAF * i / (float) (LEAF_DIMENSIONS.length - 1);
+            LEAF_DIMENSIONS[i] = new Vector2(Constants.LEAF_DIMENSION + stretch, Constants.LEAF_DIMENSION);
+        }
+    }
+
+    private static final float PERIOD = 2 * Constants.TRANSITION_TIME;
+
+    private GameObject[] objects = new GameObject[Constants.SWAY_INITIAL_CAPACITY];
+    private float[] phases = new float[Constants.SWAY_INITIAL_CAPACITY];
+    private boolean[] isFruit = new boolean[Constants.SWAY_INITIAL_CAPACITY];
+    private float[] anchorsX = new float[Constants.SWAY_INITIAL_CAPACITY];
+    private float[] anchorsY = new float[Constants.SWAY_INITIAL_CAPACITY];
+    private float[] positionsX = new float[Constants.SWAY_INITIAL_CAPACITY];
+    private final Map<GameObject, Integer> slots = new IdentityHashMap<>();
+    private int size = 0;
+    private float time = 0;
+    private float fullRateDistance = Constants.SWAY_FULL_RATE_DISTANCE;
+    private float visibleDistance = Float.MAX_VALUE;
+    private int reducedRateInterval = Constants.SWAY_REDUCED_RATE_INTERVAL;
+    private int frame = 0;
+    private int animatedCount = 0;
+
+    /**
+     * Sets the distances that decide how often an object is animated.
+     *
+     * @param fullRateDistance    Objects closer than this to the focus update every frame.
+     * @param visibleDistance     Objects further than this from the focus are frozen.
+     * @param reducedRateInterval Objects between the two distances update once every this many
+     *                            frames.
+     */
+    public void setLodThresholds(float fullRateDistance, float visibleDistance, int reducedRateInterval) {
+        this.fullRateDistance = fullRateDistance;
+        this.visibleDistance = visibleDistance;
+        this.reducedRateInterval = Math.max(1, reducedRateInterval);
+    }
+
+    /**
+     * Returns the number of objects animated in the last update.
+     *
+     * @return The number of leaves and fruits updated in the last frame.
+     */
+    public int getAnimatedCount() {
+        return animatedCount;
+    }
+
+    /**
+     * Starts animating a leaf.
+     *
+     * @param leaf The leaf.
+     */
+    public void addLeaf(GameObject leaf) {
+        add(leaf, false, 0, 0);
+    }
+
+    /**
+     * Starts animating a fruit around its anchor.
+     *
+     * @param fruit The fruit.
+     */
+    public void addFruit(Fruit fruit) {
+        Vector2 anchor = fruit.getAnchor();
+        add(fruit, true, anchor.x(), anchor.y());
+    }
+
+    /**
+     * Starts animating a leaf or a fruit, if it isn't animated already.
+     *
+     * @param gameObject The leaf or fruit.
+     */
+    public void add(GameObject gameObject) {
+        if (gameObject instanceof Fruit) {
+            addFruit((Fruit) gameObject);
+        } else {
+            addLeaf(gameObject);
+        }
+    }
+
+    /**
+     * Starts animating a leaf or fruit once it was added to the world.
+     *
+     * @param gameObject The leaf or fruit.
+     */
+    @Override
+    public void onAttached(GameObject gameObject) {
+        add(gameObject);
+    }
+
+    /**
+     * Stops animating a leaf or fruit once it was removed from the world.
+     *
+     * @param gameObject The leaf or fruit.
+     */
+    @Override
+    public void onDetached(GameObject gameObject) {
+        remove(gameObject);
+    }
+
+    /**
+     * Stops animating an object. The last animated object takes its place in the arrays.
+     *
+     * @param gameObject The leaf or fruit.
+     */
+    public void remove(GameObject gameObject) {
+        Integer slot = slots.remove(gameObject);
+        if (slot == null) {
+            return;
+        }
+        size--;
+        if (slot != size) {
+            objects[slot] = objects[size];
+            phases[slot] = phases[size];
+            isFruit[slot] = isFruit[size];
+            anchorsX[slot] = anchorsX[size];
+            anchorsY[slot] = anchorsY[size];
+            positionsX[slot] = positionsX[size];
+            slots.put(objects[slot], slot);
+        }
+        objects[size] = null;
+    }
+
+    /**
+     * Returns the number of animated objects.
+     *
+     * @return The number of leaves and fruits being animated.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Advances the animation of the leaves and fruits near enough to the focus.
+     *
+     * @param deltaTime The time passed since the last update, in seconds.
+     * @param focusX    The x-coordinate the distances are measured from, usually the avatar's.
+     */
+    public void update(float deltaTime, float focusX) {
+        time = (time + deltaTime) % PERIOD;
+        frame = (frame + 1) % reducedRateInterval;
+        float angleRange = Constants.FINAL_LEAF_ANGLE - Constants.INITIAL_LEAF_ANGLE;
+        int lastStep = LEAF_DIMENSIONS.length - 1;
+        int animated = 0;
+        for (int i = 0; i < size; i++) {
+            float distance = Math.abs(positionsX[i] - focusX);
+            if (distance > visibleDistance
+                    || (distance > fullRateDistance && i % reducedRateInterval != frame)) {
+                continue;
+            }
+            animated++;
+            float wave = triangleWave(time + phases[i]);
+            GameObject gameObject = objects[i];
+            gameObject.renderer().setRenderableAngle(Constants.INITIAL_LEAF_ANGLE + angleRange * wave);
+            if (isFruit[i]) {
+                gameObject.transform().setTopLeftCorner(anchorsX[i],
+                        anchorsY[i] + Constants.POSITION_TRANSITION_Y_OFFSET * wave);
+            } else {
+                gameObject.setDimensions(LEAF_DIMENSIONS[(int) (wave * lastStep + 0.5f)]);
+            }
+        }
+        animatedCount = animated;
+    }
+
+    /**
+     * Records an object in the next free slot, growing the arrays when they are full.
+     *
+     * @param gameObject The leaf or fruit.
+     * @param fruit      Whether the object is a fruit.
+     * @param anchorX    The x-coordinate of the fruit's anchor.
+     * @param anchorY    The y-coordinate of the fruit's anchor.
+     */
+    private void add(GameObject gameObject, boolean fruit, float anchorX, float anchorY) {
+        if (slots.containsKey(gameObject)) {
+            return;
+        }
+        if (size == objects.length) {
+            grow();
+        }
+        Vector2 topLeft = gameObject.getTopLeftCorner();
+        objects[size] = gameObject;
+        phases[size] = phaseAt(topLeft.x(), topLeft.y());
+        isFruit[size] = fruit;
+        anchorsX[size] = anchorX;
+        anchorsY[size] = anchorY;
+        positionsX[size] = topLeft.x();
+        slots.put(gameObject, size);
+        size++;
+    }
+
+    /** Doubles the capacity of the arrays. */
+    private void grow() {
+        int capacity = objects.length * 2;
+        objects = Arrays.copyOf(objects, capacity);
+        phases = Arrays.copyOf(phases, capacity);
+        isFruit = Arrays.copyOf(isFruit, capacity);
+        anchorsX = Arrays.copyOf(anchorsX, capacity);
+        anchorsY = Arrays.copyOf(anchorsY, capacity);
+        positionsX = Arrays.copyOf(positionsX, capacity);
+    }
+
+    /**
+     * Derives the phase of an object from its position, so an object regenerated at the same
+     * place sways the same way.
+     *
+     * @param x The x-coordinate of the object.
+     * @param y The y-coordinate of the object.
+     * @return A phase in [0, PERIOD).
+     */
+    private static float phaseAt(float x, float y) {
+        int hash = Float.floatToIntBits(x) * 0x9E3779B9 + Float.floatToIntBits(y) * 0x85EBCA6B;
+        hash ^= hash >>> 16;
+        return (hash & 0xFFFF) / (float) 0x10000 * PERIOD;
+    }
+
+    /**
+     * A triangle wave going from 0 up to 1 and back down over one period, like a transition
+     * going back and forth.
+     *
+     * @param t The time along the wave.
+     * @return The value of the wave, in [0, 1].
+     */
+    private static float triangleWave(float t) {
+        float u = (t % PERIOD) / Constants.TRANSITION_TIME;
+        return u <= 1 ? u : 2 - u;
+    }
+}
@@ -0,0 +1,103 @@
+package pepse.world.trees;
+
+import pepse.util.Constants;
+import pepse.util.LongLongHashMap;
+
+/**
+ * Remembers which fruits were eaten, so a chunk that is unloaded and generated again doesn't
+ * grow them back until they regrow.
+ * Fruits are identified by their chunk and their slot, the position of the fruit among all the
+ * fruits of its chunk, which generation gives in the same order every time. Each chunk keeps a
+ * bitset of eaten slots, stored one 64-bit word per map entry, so only chunks in which fruit was
+ * actually eaten take any memory, and a word is dropped once all its fruits have regrown.
+ * Generation reads the bitsets from worker threads, so access is synchronized.
+ */
+public class EatenFruit {
+    private final LongLongHashMap words = new LongLongHashMap(Constants.EATEN_FRUIT_INITIAL_CAPACITY);
+
+    /**
+     * Records a fruit as eaten.
+     *
+     * @param chunk The chunk of the fruit.
+     * @param slot  The slot of the fruit within its chunk.
+     */
+    public synchronized void markEaten(int chunk, int slot) {
+        long key = key(chunk, slot);
+        words.put(key, words.get(key) | bit(slot));
+    }
+
+    /**
+     * Records an eaten fruit as grown back. Trees and canopies generated from now on include it;
+     * showing it on a tree already in the world is up to the caller.
+     *
+     * @param chunk The chunk of the fruit.
+     * @param slot  The slot of the fruit within its chunk.
+     */
+    public synchronized void markRegrown(int chunk, int slot) {
+        long key = key(chunk, slot);
+        long word = words.get(key);
+        if (word == bit(slot)) {
+            words.remove(key); // the last eaten fruit of the word, so the word takes no memory
+        } else if ((word & bit(slot)) != 0) {
+            words.put(key, word & ~bit(slot));
+        }
+    }
+
+    /**
+     * Returns whether a fruit was eaten.
+     *
+     * @param chunk The chunk of the fruit.
+     * @param slot  The slot of the fruit within its chunk.
+     * @return True if the fruit was eaten.
+     */
+    public synchronized boolean isEaten(int chunk, int slot) {
+        return (words.get(key(chunk, slot)) & bit(slot)) != 0;
+    }
+
+    /**
+     * Returns whether any of a range of fruit slots was eaten.
+     *
+     * @param chunk     The chunk of the fruits.
+     * @param firstSlot The first slot of the range.
+     * @param count     The number of slots in the range.
+     * @return True if a fruit in the range was eaten.
+     */
+    public synchronized boolean isAnyEaten(int chunk, int firstSlot, int count) {
+        for (int slot = firstSlot; slot < firstSlot + count; slot++) {
+            if ((words.get(key(chunk, slot)) & bit(slot)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of bytes used to remember the eaten fruits.
+     *
+     * @return The memory held by the bitsets, in bytes.
+     */
+    public synchronized long memoryBytes() {
+        return words.memoryBytes();
+    }
+
+    /**
+     * Returns the map key of the word holding a slot's bit.
+     *
+     * @param chunk The chunk of the fruit.
+     * @param slot  The slot of the fruit within its chunk.
+     * @return The key of the word.
+     */
+    private static long key(int chunk, int slot) {
+        return ((long) chunk << Integer.SIZE) | (slot >>> 6);
+    }
+
+    /**
+     * Returns the bit of a slot within its word.
+     *
+     * @param slot The slot of the fruit within its chunk.
+     * @return A mask with the slot's bit set.
+     */
+    private static long bit(int slot) {
+        return 1L << (slot & 63);
+    }
+}
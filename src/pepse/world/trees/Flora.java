@@ -1,6 +1,7 @@
 package pepse.world.trees;
 
 import danogl.util.Vector2;
+import pepse.util.ChunkRandom;
 import pepse.util.Constants;
 import pepse.util.NoiseGenerator;
 import pepse.world.Block;
@@ -8,7 +9,7 @@ import pepse.world.Terrain;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 
 /**
@@ -19,6 +20,7 @@ public class Flora {
     private final Terrain terrain;
     private TreeGenerator treeGenerator;
     private final NoiseGenerator noiseGenerator;
+    private final int seed;
 
     /**
      * Constructor for the Flora class.
@@ -27,14 +29,27 @@ public class Flora {
      * @param seed    The seed value for procedural noise generation.
      */
     public Flora(Terrain terrain, int seed) {
-        this.treeGenerator = new TreeGenerator();
+        this.treeGenerator = new TreeGenerator(seed);
         this.terrain = terrain;
+        this.seed = seed;
         this.noiseGenerator = new NoiseGenerator(seed, (int)terrain.groundHeightAt(0));
     }
 
 
+    /**
+     * Returns the tree generator, which owns the pools the parts of the trees are taken from.
+     *
+     * @return The tree generator.
+     */
+    public TreeGenerator getTreeGenerator() {
+        return treeGenerator;
+    }
+
     /**
      * Creates trees within a given range, based on a combination of sine wave and noise values.
+     * The trees are drawn from the random stream of the chunk containing minX, so generating
+     * the same range again gives the same trees, and their fruits get the same slots of the
+     * chunk, so eaten fruits stay eaten.
      *
      * @param minX The minimum X-coordinate for the range.
      * @param maxX The maximum X-coordinate for the range.
@@ -46,12 +61,18 @@ public class Flora {
         double frequency = Constants.FLORA_SIN_PERIODICITY; // Controls the periodicity
         double amplitude = Constants.FLORA_SINE_AMPLITUDE;  // Controls how far the wave fluctuates
 
+        RandomGenerator random = ChunkRandom.forChunkAt(seed, minX, ChunkRandom.Purpose.FLORA);
+        int chunk = Math.floorDiv(minX, Constants.CHUNK_WIDTH * Constants.BLOCK_SIZE);
+        int fruitSlot = 0;
+        double[] noise = new double[(maxX - minX + Constants.BLOCK_SIZE - 1) / Constants.BLOCK_SIZE];
+        noiseGenerator.batchNoise(minX, Constants.BLOCK_SIZE, Constants.SIN_NOISE_FACTOR, noise);
         for (int x = minX; x < maxX; x+= Constants.BLOCK_SIZE) {
             double sineValue = Math.sin(x * frequency) * amplitude + Constants.SIN_AMPLITUDE_OFFSET;
-            double finalValue = sineValue * noiseGenerator.noise(x, Constants.SIN_NOISE_FACTOR);
+            double finalValue = sineValue * noise[(x - minX) / Constants.BLOCK_SIZE];
             if(finalValue > Constants.TREE_SPAWN_THRESHOLD) {
                 Vector2 position = new Vector2(x, terrain.groundHeightAt(x));
-                Tree tree = treeGenerator.createTree(position);
+                Tree tree = treeGenerator.createTree(position, random, chunk, fruitSlot);
+                fruitSlot += tree.getFruitSlotCount();
                 createdTrees.add(tree);
             }
         }
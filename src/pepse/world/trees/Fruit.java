@@ -0,0 +1,71 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+
+/**
+ * A fruit hanging from a tree's canopy.
+ * The fruit bobs below an anchor position, so it can be moved to a new tree and the canopy sway
+ * only needs to know where it rests.
+ */
+public class Fruit extends GameObject {
+    private Vector2 anchor = Vector2.ZERO;
+    private int chunk = 0;
+    private int slot = 0;
+
+    /**
+     * Constructor for the Fruit class. The fruit is placed with setAnchor.
+     */
+    public Fruit() {
+        super(Vector2.ZERO, new Vector2(Constants.FRUIT_DIMENSION, Constants.FRUIT_DIMENSION), null);
+    }
+
+    /**
+     * Places the fruit at a new anchor position.
+     *
+     * @param anchor The top left corner of the fruit when it is at rest.
+     */
+    public void setAnchor(Vector2 anchor) {
+        this.anchor = anchor;
+        setTopLeftCorner(anchor);
+    }
+
+    /**
+     * Sets which fruit of the world this is, so it is remembered once eaten.
+     *
+     * @param chunk The chunk of the fruit.
+     * @param slot  The slot of the fruit within its chunk.
+     */
+    public void setSlot(int chunk, int slot) {
+        this.chunk = chunk;
+        this.slot = slot;
+    }
+
+    /**
+     * Returns the chunk of the fruit.
+     *
+     * @return The index of the chunk the fruit was generated for.
+     */
+    public int getChunk() {
+        return chunk;
+    }
+
+    /**
+     * Returns the slot of the fruit within its chunk.
+     *
+     * @return The position of the fruit among the fruits of its chunk.
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Returns the anchor position of the fruit.
+     *
+     * @return The top left corner of the fruit when it is at rest.
+     */
+    public Vector2 getAnchor() {
+        return anchor;
+    }
+}
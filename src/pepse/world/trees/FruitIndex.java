@@ -0,0 +1,126 @@
+package pepse.world.trees;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.AttachmentListener;
+import pepse.util.Constants;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial index of the fruits in the world, bucketed by chunk, so finding the fruits touching
+ * the avatar only looks at the fruits of the chunks under it.
+ * Fruits are indexed by their anchor, and an overlap covers the whole height the fruit bobs
+ * through, so the index never has to follow the fruit's animation.
+ */
+public class FruitIndex implements AttachmentListener {
+    private static final int CHUNK_PIXELS = Constants.CHUNK_WIDTH * Constants.BLOCK_SIZE;
+
+    private final Map<Integer, List<Fruit>> buckets = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * Adds a fruit to the index.
+     *
+     * @param fruit The fruit.
+     */
+    public void add(Fruit fruit) {
+        buckets.computeIfAbsent(chunkOf(fruit.getAnchor().x()), chunk -> new ArrayList<>()).add(fruit);
+        size++;
+    }
+
+    /**
+     * Removes a fruit from the index, if it is indexed.
+     *
+     * @param fruit The fruit.
+     */
+    public void remove(Fruit fruit) {
+        int chunk = chunkOf(fruit.getAnchor().x());
+        List<Fruit> bucket = buckets.get(chunk);
+        if (bucket != null && bucket.remove(fruit)) {
+            size--;
+            if (bucket.isEmpty()) {
+                buckets.remove(chunk);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of indexed fruits.
+     *
+     * @return The number of fruits in the world.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indexes a fruit once it was added to the world.
+     *
+     * @param gameObject The fruit.
+     */
+    @Override
+    public void onAttached(GameObject gameObject) {
+        if (gameObject instanceof Fruit) {
+            add((Fruit) gameObject);
+        }
+    }
+
+    /**
+     * Drops a fruit from the index once it was removed from the world.
+     *
+     * @param gameObject The fruit.
+     */
+    @Override
+    public void onDetached(GameObject gameObject) {
+        if (gameObject instanceof Fruit) {
+            remove((Fruit) gameObject);
+        }
+    }
+
+    /**
+     * Finds the fruits overlapping a rectangle.
+     *
+     * @param topLeft    The top left corner of the rectangle.
+     * @param dimensions The dimensions of the rectangle.
+     * @param found      The list to add the overlapping fruits to.
+     */
+    public void findOverlapping(Vector2 topLeft, Vector2 dimensions, List<Fruit> found) {
+        float minX = topLeft.x();
+        float minY = topLeft.y();
+        float maxX = minX + dimensions.x();
+        float maxY = minY + dimensions.y();
+        // A fruit anchored in the chunk to the left can still reach into the rectangle
+        int firstChunk = chunkOf(minX - Constants.FRUIT_DIMENSION);
+        int lastChunk = chunkOf(maxX);
+        for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+            List<Fruit> bucket = buckets.get(chunk);
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket.size(); i++) {
+                Fruit fruit = bucket.get(i);
+                Vector2 anchor = fruit.getAnchor();
+                if (anchor.x() < maxX && anchor.x() + Constants.FRUIT_DIMENSION > minX
+                        && anchor.y() < maxY
+                        && anchor.y() + Constants.FRUIT_DIMENSION + Constants.POSITION_TRANSITION_Y_OFFSET
+                        > minY) {
+                    found.add(fruit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the chunk an x-coordinate falls in.
+     *
+     * @param x The x-coordinate.
+     * @return The index of the chunk.
+     */
+    private static int chunkOf(float x) {
+        return (int) Math.floor(x / CHUNK_PIXELS);
+    }
+}
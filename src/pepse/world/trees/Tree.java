@@ -1,16 +1,25 @@
 package pepse.world.trees;
 
 import danogl.GameObject;
+import danogl.util.Vector2;
 
 import java.util.List;
 
 /**
  * A class that represents a tree, pairing its trunk, leaves, and fruits together.
+ * A tree whose canopy was baked has no leaves or fruits of its own, only a canopy sprite.
+ * Every tree takes up as many fruit slots of its chunk as its variant has fruits, eaten or not,
+ * and remembers its variant and where its canopy starts, so an eaten fruit can grow back on it.
  */
 public class Tree {
     private GameObject trunk;
     private List<GameObject> leaves;
     private final List<GameObject> fruits;
+    private final CanopySprite canopy;
+    private final TreeTemplate template;
+    private final Vector2 canopyTopLeft;
+    private final int firstFruitSlot;
+    private final int fruitSlotCount;
 
     /**
      * Constructor for creating a Tree object.
@@ -23,6 +32,80 @@ public class Tree {
         this.trunk = trunk;
         this.leaves = leaves;
         this.fruits = fruits;
+        this.canopy = null;
+        this.template = null;
+        this.canopyTopLeft = null;
+        this.firstFruitSlot = 0;
+        this.fruitSlotCount = fruits.size();
+    }
+
+    /**
+     * Constructor for creating a Tree object from a tree variant.
+     *
+     * @param trunk          The trunk of the tree.
+     * @param leaves         A list of GameObjects representing the leaves of the tree.
+     * @param fruits         A list of GameObjects representing the fruits of the tree.
+     * @param canopy         The baked canopy of the tree, or null.
+     * @param template       The tree variant the tree was made from.
+     * @param canopyTopLeft  The top left corner of the tree's canopy grid.
+     * @param firstFruitSlot The slot of the tree's first fruit within its chunk.
+     */
+    public Tree(GameObject trunk, List<GameObject> leaves, List<GameObject> fruits, CanopySprite canopy,
+                TreeTemplate template, Vector2 canopyTopLeft, int firstFruitSlot) {
+        this.trunk = trunk;
+        this.leaves = leaves;
+        this.fruits = fruits;
+        this.canopy = canopy;
+        this.template = template;
+        this.canopyTopLeft = canopyTopLeft;
+        this.firstFruitSlot = firstFruitSlot;
+        this.fruitSlotCount = template.getFruitCount();
+    }
+
+    /**
+     * Returns the tree variant the tree was made from.
+     *
+     * @return The tree template, or null if the tree wasn't made from one.
+     */
+    public TreeTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Returns the top left corner of the tree's canopy grid.
+     *
+     * @return The top left corner, or null if the tree wasn't made from a variant.
+     */
+    public Vector2 getCanopyTopLeft() {
+        return canopyTopLeft;
+    }
+
+    /**
+     * Returns the slot of the tree's first fruit within its chunk.
+     *
+     * @return The first fruit slot.
+     */
+    public int getFirstFruitSlot() {
+        return firstFruitSlot;
+    }
+
+    /**
+     * Returns whether a fruit slot of the chunk belongs to the tree.
+     *
+     * @param slot The slot within the tree's chunk.
+     * @return True if the slot is one of the tree's fruit slots.
+     */
+    public boolean hasFruitSlot(int slot) {
+        return slot >= firstFruitSlot && slot < firstFruitSlot + fruitSlotCount;
+    }
+
+    /**
+     * Returns the number of fruit slots of its chunk the tree takes up.
+     *
+     * @return The number of fruits of the tree's variant.
+     */
+    public int getFruitSlotCount() {
+        return fruitSlotCount;
     }
 
     /**
@@ -49,5 +132,13 @@ public class Tree {
     public List<GameObject> getFruits() {
         return fruits;
     }
-}
 
+    /**
+     * Returns the baked canopy of the tree.
+     *
+     * @return The canopy sprite, or null if the tree has individual leaves and fruits.
+     */
+    public CanopySprite getCanopy() {
+        return canopy;
+    }
+}
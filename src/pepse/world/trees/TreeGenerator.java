@@ -2,256 +2,389 @@ package pepse.world.trees;
 
 import danogl.GameObject;
 import danogl.components.GameObjectPhysics;
-import danogl.components.ScheduledTask;
-import danogl.components.Transition;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.util.Vector2;
-import pepse.util.ColorSupplier;
 import pepse.util.Constants;
+import pepse.util.ObjectPool;
 import pepse.world.Terrain;
 
 import java.awt.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 
 /**
  * A class that handles the creation and management of trees in the simulation,
  * including trunks, leaves, and fruits.
+ * Trunks, leaves and fruits are taken from pools, so only their position, renderable and tag
+ * are reset. Leaves and fruits are animated by the generator's canopy sway while they are in
+ * the world. Every tree is an instance of one of the precomputed variants of the template
+ * library, chosen with the random stream it is created with.
+ * By default a tree's canopy is baked into one image, and only expanded into leaves and fruits
+ * while the avatar is near.
  */
 public class TreeGenerator {
 
+    private static final RectangleRenderable[] LEAF_RENDERABLES =
+            new RectangleRenderable[Constants.LEAF_COLORS.length];
+    private static final OvalRenderable FRUIT_RENDERABLE = new OvalRenderable(Color.RED);
+
+    static {
+        for (int i = 0; i < Constants.LEAF_COLORS.length; i++) {
+            LEAF_RENDERABLES[i] = new RectangleRenderable(Constants.LEAF_COLORS[i]);
+        }
+    }
+
     private int leafCanopyDimension;
-    private Random seed = new Random();
+    private final TreeTemplateLibrary templates;
+    private final CanopySway canopySway = new CanopySway();
+    private final FruitIndex fruitIndex = new FruitIndex();
+    private final EatenFruit eatenFruit = new EatenFruit();
+    private volatile boolean bakeCanopies = true;
+    private final ObjectPool<GameObject> trunkPool = new ObjectPool<>(GameObject.class,
+            this::newTrunk, Constants.OBJECT_POOL_CAPACITY);
+    private final ObjectPool<GameObject> leafPool = new ObjectPool<>(GameObject.class,
+            this::newLeaf, Constants.OBJECT_POOL_CAPACITY);
+    private final ObjectPool<Fruit> fruitPool = new ObjectPool<>(Fruit.class,
+            this::newFruit, Constants.OBJECT_POOL_CAPACITY);
+
     /**
-     * Creates a tree trunk at a specified position.
+     * Constructor for the TreeGenerator class. Builds the tree variants of the world.
      *
-     * @param position The position of the trunk's base.
-     * @return A GameObject representing the trunk.
+     * @param worldSeed The seed of the world.
      */
-    private GameObject createTrunk(Vector2 position) {
-        int heightOfTrunk = this.seed.nextInt(Constants.MIN_TRUNK_SIZE, Constants.MAX_TRUNK_SIZE)
-                * Constants.TRUNK_ELEMENT_SIZE;
-        RectangleRenderable trunkRenderable = new RectangleRenderable(ColorSupplier.approximateColor(
-                Constants.TREE_TRUNK_COLOR, 4));
-        Vector2 trunkDims = new Vector2(Constants.TRUNK_ELEMENT_SIZE, heightOfTrunk);
-        return new GameObject(position, trunkDims, trunkRenderable);
+    public TreeGenerator(long worldSeed) {
+        this.templates = new TreeTemplateLibrary(worldSeed);
+    }
 
+    /**
+     * Sets whether new trees draw their canopy as one image until the avatar comes near, or
+     * always as individual leaves and fruits.
+     *
+     * @param bakeCanopies True to bake the canopies of new trees.
+     */
+    public void setCanopyBaking(boolean bakeCanopies) {
+        this.bakeCanopies = bakeCanopies;
     }
 
     /**
-     * Creates a single leaf at a specified position.
+     * Returns the canopy sway that animates the leaves and fruits of the trees.
      *
-     * @param position The position of the leaf.
-     * @return A GameObject representing the leaf.
+     * @return The canopy sway.
      */
-    private GameObject createLeaf(Vector2 position) {
-        RectangleRenderable leafRenderer =
-                new RectangleRenderable(ColorSupplier.chooseRandomColor(Constants.LEAF_COLORS));
-        Vector2 leafDims = new Vector2(Constants.LEAF_DIMENSION, Constants.LEAF_DIMENSION);
+    public CanopySway getCanopySway() {
+        return canopySway;
+    }
 
-        return new GameObject(position, leafDims, leafRenderer);
+    /**
+     * Returns the spatial index of the fruits in the world.
+     *
+     * @return The fruit index.
+     */
+    public FruitIndex getFruitIndex() {
+        return fruitIndex;
     }
 
+    /**
+     * Returns the record of the fruits eaten so far.
+     *
+     * @return The eaten fruit, which generation leaves out.
+     */
+    public EatenFruit getEatenFruit() {
+        return eatenFruit;
+    }
 
     /**
-     * Creates a transition to oscillate a GameObject's angle.
+     * Returns the pool of trunks.
      *
-     * @param object    The GameObject to apply the transition to.
-     * @param delayTime Delay before starting the transition.
-     * @return The created Transition.
+     * @return The pool the trunks are taken from.
      */
-    private Transition createAngleTransition(GameObject object, float delayTime){
-        return new Transition<>(
-                object,
-                (Float angle) -> object.renderer().setRenderableAngle(angle),
-                Constants.INITIAL_LEAF_ANGLE,
-                Constants.FINAL_LEAF_ANGLE,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                Constants.TRANSITION_TIME,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
+    public ObjectPool<GameObject> getTrunkPool() {
+        return trunkPool;
     }
 
     /**
-     * Creates a transition to oscillate an object's width.
+     * Returns the pool of leaves.
      *
-     * @param object    The GameObject to apply the transition to.
-     * @param delayTime Delay before starting the transition.
-     * @return The created Transition.
+     * @return The pool the leaves are taken from.
      */
-    private Transition createStretchTransition(GameObject object, float delayTime){
-        return new Transition<Float>(
-                object,
-                (Float width) -> object.setDimensions(new Vector2(width, Constants.LEAF_DIMENSION)),
-                (float) Constants.LEAF_DIMENSION,
-                (float) Constants.LEAF_DIMENSION + (float) Constants.ADDED_DIMENSION_LEAF,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                Constants.TRANSITION_TIME,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
+    public ObjectPool<GameObject> getLeafPool() {
+        return leafPool;
     }
 
     /**
-     * Creates a transition to oscillate an object's position vertically.
+     * Returns the pool of fruits.
      *
-     * @param object    The GameObject to apply the transition to.
-     * @param delayTime Delay before starting the transition.
-     * @return The created Transition.
+     * @return The pool the fruits are taken from.
      */
-    private Transition createPositionTransition(GameObject object, float delayTime){
-        return new Transition<>(
-                object,
-                (Vector2 pos) -> object.setTopLeftCorner(pos),
-                object.getTopLeftCorner(),
-                object.getTopLeftCorner().add(new Vector2(0, Constants.POSITION_TRANSITION_Y_OFFSET)),
-                Transition.LINEAR_INTERPOLATOR_VECTOR,
-                Constants.TRANSITION_TIME,
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
+    public ObjectPool<Fruit> getFruitPool() {
+        return fruitPool;
     }
 
     /**
-     * Creates a leaf or fruit with transitions and delays.
+     * Creates a new immovable trunk for the trunk pool.
      *
-     * @param object   The GameObject to modify.
-     * @param delayTime Delay before starting transitions.
-     * @param isLeaf   Whether the object is a leaf (true) or fruit (false).
-     * @return The modified GameObject.
+     * @return A GameObject to be used as a trunk.
      */
-    private GameObject makeObjectWithDelay(GameObject object, float delayTime, boolean isLeaf) {
-            Runnable angleTransition = () -> {
-                createAngleTransition(object, delayTime);
-            };
-
-            Runnable stretchTransition = () -> {
-                createStretchTransition(object, delayTime);
-            };
-
-        Runnable positionTransition = () -> {
-            createPositionTransition(object, delayTime);
-        };
-
-        Runnable createTransitions = () -> {
-            if (isLeaf) {
-                stretchTransition.run();
-            } else {
-                positionTransition.run(); // Add position transition for fruits
-            }
-            angleTransition.run();
-        };
-
-        new ScheduledTask(
-                object,
-                delayTime,
-                false,
-                createTransitions
-        );
-        return object;
+    private GameObject newTrunk() {
+        GameObject trunk = new GameObject(Vector2.ZERO, Vector2.ONES, null);
+        trunk.physics().preventIntersectionsFromDirection(Vector2.ZERO);
+        trunk.physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+        return trunk;
+    }
+
+    /**
+     * Creates a new leaf for the leaf pool.
+     *
+     * @return A GameObject to be used as a leaf.
+     */
+    private GameObject newLeaf() {
+        return new GameObject(Vector2.ZERO,
+                new Vector2(Constants.LEAF_DIMENSION, Constants.LEAF_DIMENSION), null);
+    }
+
+    /**
+     * Creates a new fruit for the fruit pool.
+     *
+     * @return A Fruit.
+     */
+    private Fruit newFruit() {
+        return new Fruit();
+    }
+
+    /**
+     * Creates a tree trunk at a specified position.
+     *
+     * @param position The position of the trunk's base.
+     * @param template The tree variant the trunk is made from.
+     * @return A GameObject representing the trunk.
+     */
+    private GameObject createTrunk(Vector2 position, TreeTemplate template) {
+        int heightOfTrunk = template.getTrunkHeight();
+        GameObject trunk = trunkPool.acquire();
+        trunk.setTopLeftCorner(position.add(new Vector2(0, -heightOfTrunk)));
+        trunk.setDimensions(new Vector2(Constants.TRUNK_ELEMENT_SIZE, heightOfTrunk));
+        trunk.renderer().setRenderable(template.getTrunkRenderable());
+        trunk.setTag("trunk");
+        return trunk;
+    }
+
+    /**
+     * Creates a single leaf at a specified position.
+     *
+     * @param position   The position of the leaf.
+     * @param colorIndex The index of the leaf's color in LEAF_COLORS.
+     * @return A GameObject representing the leaf.
+     */
+    private GameObject createLeaf(Vector2 position, int colorIndex) {
+        GameObject leaf = leafPool.acquire();
+        leaf.setTopLeftCorner(position);
+        leaf.setTag("leaf");
+        leaf.renderer().setRenderable(LEAF_RENDERABLES[colorIndex]);
+        return leaf;
     }
 
     /**
      * Creates a fruit at the specified position.
      *
      * @param position The position of the fruit.
-     * @return A GameObject representing the fruit.
+     * @param chunk    The chunk of the fruit.
+     * @param slot     The slot of the fruit within its chunk.
+     * @return The fruit.
      */
-    private GameObject createFruit(Vector2 position) {
-        OvalRenderable leafRenderer = new OvalRenderable(Color.RED);
-        Vector2 fruitDims = new Vector2(Constants.FRUIT_DIMENSION, Constants.FRUIT_DIMENSION);
-        return new GameObject(position, fruitDims, leafRenderer);
+    private Fruit createFruit(Vector2 position, int chunk, int slot) {
+        Fruit fruit = fruitPool.acquire();
+        fruit.setAnchor(position);
+        fruit.setSlot(chunk, slot);
+        fruit.renderer().setRenderable(FRUIT_RENDERABLE);
+        fruit.setTag("fruit");
+        return fruit;
     }
 
     /**
-     * Assigns leaves and fruits to positions in a canopy grid.
+     * Turns a tree variant's canopy grid into individual leaves and fruits, leaving out the
+     * fruits that were eaten.
+     * Without a list of leaves, only the fruits are created.
      *
-     * @param canopySize The size of the canopy grid.
-     * @return A 2D array representing the canopy grid.
+     * @param startPosition  The top left corner of the canopy grid.
+     * @param template       The tree variant.
+     * @param chunk          The chunk the tree belongs to.
+     * @param firstFruitSlot The slot of the tree's first fruit within its chunk.
+     * @param leaves         The list to add the leaves to, or null to leave out the leaves.
+     * @param fruits         The list to add the fruits to.
      */
-    private int[][] assignLeavesAndFruits(int canopySize) {
-        int gridSize = canopySize / Constants.LEAF_DIMENSION;
-        int[][] canopyGrid = new int[gridSize][gridSize];
-
-        for (int x = 0; x < gridSize; x++) {
-            for (int y = 0; y < gridSize; y++) {
-                if (seed.nextDouble() < Constants.LEAF_SUCCESS_RATE) {
-                    canopyGrid[x][y] = seed.nextDouble()
-                            < Constants.FRUIT_PROBABILITY ? Constants.FRUITANDLEAFCELL : Constants.LEAFCELL;
-                    // Leaf with or without fruit
-                } else if (seed.nextDouble() < Constants.FRUIT_PROBABILITY) {
-                    canopyGrid[x][y] = Constants.FRUITCELL; // Fruit only
+    private void generateLeavesAndFruits(Vector2 startPosition, TreeTemplate template, int chunk,
+                                         int firstFruitSlot, List<GameObject> leaves,
+                                         List<GameObject> fruits) {
+        int[][] canopyGrid = template.getCanopyGrid();
+        int[][] leafColors = template.getLeafColors();
+        int fruitSlot = firstFruitSlot;
+        for (int x = 0; x < canopyGrid.length; x++) {
+            for (int y = 0; y < canopyGrid[x].length; y++) {
+                Vector2 position = startPosition.add(new Vector2(x * Constants.LEAF_DIMENSION,
+                        y * Constants.LEAF_DIMENSION));
+                int cellValue = canopyGrid[x][y];
+
+                if (leaves != null && TreeTemplate.hasLeaf(cellValue)) {
+                    leaves.add(createLeaf(position, leafColors[x][y]));
+                }
+                if (TreeTemplate.hasFruit(cellValue)) {
+                    if (!eatenFruit.isEaten(chunk, fruitSlot)) {
+                        fruits.add(createFruit(position, chunk, fruitSlot));
+                    }
+                    fruitSlot++;
                 }
             }
         }
-        return canopyGrid;
     }
 
     /**
-     * Generates leaves and fruits for a given tree trunk.
+     * Replaces a baked canopy with its individual leaves and fruits, taken from the pools.
+     * The leaves and fruits are recorded in the canopy; adding them to the world, and removing
+     * the fruits it had while collapsed, is up to the caller.
      *
-     * @param trunk      The trunk GameObject.
-     * @param canopySize The size of the canopy grid.
-     * @return A list containing two lists: leaves and fruits.
+     * @param canopy The canopy to expand.
      */
-    private List<List<GameObject>> generateLeavesAndFruits(GameObject trunk, int canopySize) {
-        List<GameObject> leaves = new ArrayList<>();
-        List<GameObject> fruits = new ArrayList<>();
-        Vector2 centerTopLeft = new Vector2(trunk.getCenter().x(), trunk.getTopLeftCorner().y());
+    public void expandCanopy(CanopySprite canopy) {
+        releaseCanopyObjects(canopy);
+        generateLeavesAndFruits(canopy.getTopLeftCorner(), canopy.getTemplate(), canopy.getChunk(),
+                canopy.getFirstFruitSlot(), canopy.getLeaves(), canopy.getFruits());
+        canopy.setExpanded(true);
+    }
+
+    /**
+     * Returns the leaves and fruits of an expanded canopy to the pools and shows its image again.
+     * Once any of its fruits was eaten, the image is drawn without fruit and the remaining
+     * fruits are recorded in the canopy as individual fruits. Removing the leaves and fruits
+     * from the world, and adding the remaining fruits, is up to the caller.
+     *
+     * @param canopy The canopy to collapse.
+     */
+    public void collapseCanopy(CanopySprite canopy) {
+        releaseCanopyObjects(canopy);
+        canopy.setExpanded(false);
+        growCollapsedFruits(canopy);
+    }
+
+    /**
+     * Returns all the leaves and fruits recorded in a canopy to the pools. Removing them from the
+     * world is up to the caller.
+     *
+     * @param canopy The canopy.
+     */
+    public void releaseCanopyObjects(CanopySprite canopy) {
+        for (GameObject leaf : canopy.getLeaves()) {
+            leafPool.release(leaf);
+        }
+        for (GameObject fruit : canopy.getFruits()) {
+            fruitPool.releaseObject(fruit);
+        }
+        canopy.getLeaves().clear();
+        canopy.getFruits().clear();
+    }
 
-        int[][] canopyGrid = assignLeavesAndFruits(canopySize);
-        Vector2 startPosition = centerTopLeft.subtract(new Vector2((canopySize )  / (float)Constants.HALF,
-                (canopySize )  / (float)Constants.HALF));
+    /**
+     * Replaces the fruits recorded in a canopy with the ones not eaten right now: all its
+     * fruits while it is expanded, and while it is collapsed, the image and the fruits kept next
+     * to it. Removing the old fruits from the world and adding the new ones is up to the caller.
+     *
+     * @param canopy The canopy.
+     */
+    public void refreshCanopyFruits(CanopySprite canopy) {
+        for (GameObject fruit : canopy.getFruits()) {
+            fruitPool.releaseObject(fruit);
+        }
+        canopy.getFruits().clear();
+        if (canopy.isExpanded()) {
+            generateLeavesAndFruits(canopy.getTopLeftCorner(), canopy.getTemplate(),
+                    canopy.getChunk(), canopy.getFirstFruitSlot(), null, canopy.getFruits());
+        } else {
+            growCollapsedFruits(canopy);
+        }
+    }
 
+    /**
+     * Creates the fruit of a slot of a tree with individual leaves and fruits, for a fruit that
+     * grew back after the tree was generated without it.
+     *
+     * @param tree  The tree, made from a tree variant.
+     * @param chunk The chunk the tree belongs to.
+     * @param slot  The slot of the fruit within its chunk, one of the tree's.
+     * @return The fruit, taken from the pool, or null if the slot isn't one of the tree's.
+     */
+    public Fruit createRegrownFruit(Tree tree, int chunk, int slot) {
+        int[][] canopyGrid = tree.getTemplate().getCanopyGrid();
+        int fruitSlot = tree.getFirstFruitSlot();
         for (int x = 0; x < canopyGrid.length; x++) {
             for (int y = 0; y < canopyGrid[x].length; y++) {
-                Vector2 position = startPosition.add(new Vector2(x * Constants.LEAF_DIMENSION,
-                        y * Constants.LEAF_DIMENSION));
-                int cellValue = canopyGrid[x][y];
-
-                if (cellValue == Constants.LEAFCELL || cellValue == Constants.FRUITANDLEAFCELL) {
-                    GameObject leaf = createLeaf(position);
-                    leaves.add(makeObjectWithDelay(leaf, Constants.TRANSITION_TIME * seed.nextFloat(), true));
+                if (!TreeTemplate.hasFruit(canopyGrid[x][y])) {
+                    continue;
                 }
-                if (cellValue == Constants.FRUITCELL || cellValue == Constants.FRUITANDLEAFCELL) {
-                    GameObject fruit = createFruit(position);
-                    fruit.setTag("fruit");
-                    fruits.add(makeObjectWithDelay(fruit,
-                            Constants.TRANSITION_TIME * seed.nextFloat(), false));
+                if (fruitSlot == slot) {
+                    return createFruit(tree.getCanopyTopLeft().add(new Vector2(
+                            x * Constants.LEAF_DIMENSION, y * Constants.LEAF_DIMENSION)), chunk, slot);
                 }
+                fruitSlot++;
             }
         }
-        return List.of(leaves, fruits);
+        return null;
     }
 
     /**
-     * Creates a tree consisting of a trunk, leaves, and fruits.
+     * Chooses the image of a collapsed canopy by whether any of its fruits was eaten, and if so
+     * records the fruits that weren't eaten in the canopy, so they stay in the world next to
+     * the leaves-only image.
      *
-     * @param position The position of the tree.
+     * @param canopy The collapsed canopy.
+     */
+    private void growCollapsedFruits(CanopySprite canopy) {
+        boolean anyEaten = eatenFruit.isAnyEaten(canopy.getChunk(), canopy.getFirstFruitSlot(),
+                canopy.getTemplate().getFruitCount());
+        canopy.setFruitEaten(anyEaten);
+        if (anyEaten) {
+            generateLeavesAndFruits(canopy.getTopLeftCorner(), canopy.getTemplate(),
+                    canopy.getChunk(), canopy.getFirstFruitSlot(), null, canopy.getFruits());
+        }
+    }
+
+    /**
+     * Creates a tree consisting of a trunk, leaves, and fruits, from one of the precomputed
+     * tree variants.
+     * When canopy baking is on, the leaves and fruits are drawn as the variant's canopy sprite
+     * instead, to be expanded once the avatar comes near. Which of its fruits were eaten is
+     * only looked at once the canopy is in the world, through refreshCanopyFruits.
+     *
+     * @param position       The position of the tree.
+     * @param random         The random stream the tree's variant is chosen with.
+     * @param chunk          The chunk the tree belongs to.
+     * @param firstFruitSlot The slot of the tree's first fruit within its chunk.
      * @return A Tree object representing the entire tree.
      */
-    public Tree createTree(Vector2 position) {
+    public Tree createTree(Vector2 position, RandomGenerator random, int chunk, int firstFruitSlot) {
         float treeX = Math.round(position.x() / Constants.BLOCK_SIZE) * Constants.BLOCK_SIZE;
 
         float groundHeight = (float) Math.ceil(position.y() / Constants.BLOCK_SIZE) * Constants.BLOCK_SIZE;
 
-        Vector2 adjustedPosition = new Vector2(treeX, groundHeight);
-        GameObject trunk = createTrunk(adjustedPosition);
-        trunk.physics().preventIntersectionsFromDirection(Vector2.ZERO);
-        trunk.physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+        TreeTemplate template = templates.choose(random);
+        GameObject trunk = createTrunk(new Vector2(treeX, groundHeight), template);
+
+        int canopySize = template.getCanopySize();
+        Vector2 startPosition = new Vector2(
+                treeX + Constants.TRUNK_ELEMENT_SIZE / (float) Constants.HALF - canopySize / (float) Constants.HALF,
+                groundHeight - template.getTrunkHeight() - canopySize / (float) Constants.HALF);
 
-        float trunkHeight = trunk.getDimensions().y();
-        trunk.setTopLeftCorner(trunk.getTopLeftCorner().add(new Vector2(0, -trunkHeight)));
-        // The leaves' canopy size is based on the height of the trunk
-        int leafCanopyDimension = (int) (trunk.getDimensions().y() / Constants.TRUNK_ELEMENT_SIZE)
-                * Constants.CANOPY_MULT_FACTOR;
-        List<List<GameObject>> leavesAndFruits = generateLeavesAndFruits(trunk, leafCanopyDimension);
-        return new Tree(trunk, leavesAndFruits.get(0), leavesAndFruits.get(1));
+        List<GameObject> leaves = new ArrayList<>();
+        List<GameObject> fruits = new ArrayList<>();
+        if (bakeCanopies) {
+            CanopySprite canopy = new CanopySprite(startPosition, template, chunk, firstFruitSlot);
+            canopy.setTag("canopy");
+            return new Tree(trunk, leaves, fruits, canopy, template, startPosition, firstFruitSlot);
+        }
+        generateLeavesAndFruits(startPosition, template, chunk, firstFruitSlot, leaves, fruits);
+        return new Tree(trunk, leaves, fruits, null, template, startPosition, firstFruitSlot);
     }
 
 }
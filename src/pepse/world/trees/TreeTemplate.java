@@ -0,0 +1,140 @@
+package pepse.world.trees;
+
+import danogl.gui.rendering.Renderable;
+import pepse.util.Constants;
+
+/**
+ * A precomputed tree variant: the height of its trunk, its canopy grid and leaf colors, and the
+ * renderables every tree made from it shares. The canopy is baked twice, with and without its
+ * fruits, for trees whose fruit was eaten.
+ */
+public class TreeTemplate {
+    private final int trunkHeight;
+    private final Renderable trunkRenderable;
+    private final int[][] canopyGrid;
+    private final int[][] leafColors;
+    private final Renderable canopyRenderable;
+    private final Renderable leavesOnlyRenderable;
+    private final int fruitCount;
+
+    /**
+     * Constructor for the TreeTemplate class.
+     *
+     * @param trunkHeight          The height of the trunk, in pixels.
+     * @param trunkRenderable      The renderable of the trunk.
+     * @param canopyGrid           The canopy grid, one cell value per leaf-sized cell.
+     * @param leafColors           The index in LEAF_COLORS of the leaf in each cell.
+     * @param canopyRenderable     The image of the whole canopy.
+     * @param leavesOnlyRenderable The image of the canopy without its fruits.
+     */
+    public TreeTemplate(int trunkHeight, Renderable trunkRenderable, int[][] canopyGrid,
+                        int[][] leafColors, Renderable canopyRenderable, Renderable leavesOnlyRenderable) {
+        this.trunkHeight = trunkHeight;
+        this.trunkRenderable = trunkRenderable;
+        this.canopyGrid = canopyGrid;
+        this.leafColors = leafColors;
+        this.canopyRenderable = canopyRenderable;
+        this.leavesOnlyRenderable = leavesOnlyRenderable;
+        int fruits = 0;
+        for (int[] column : canopyGrid) {
+            for (int cellValue : column) {
+                if (hasFruit(cellValue)) {
+                    fruits++;
+                }
+            }
+        }
+        this.fruitCount = fruits;
+    }
+
+    /**
+     * Returns the height of the trunk.
+     *
+     * @return The height of the trunk, in pixels.
+     */
+    public int getTrunkHeight() {
+        return trunkHeight;
+    }
+
+    /**
+     * Returns the renderable of the trunk.
+     *
+     * @return The renderable shared by the trunks of this variant.
+     */
+    public Renderable getTrunkRenderable() {
+        return trunkRenderable;
+    }
+
+    /**
+     * Returns the canopy grid.
+     *
+     * @return The cell values of the canopy, indexed by column and then row.
+     */
+    public int[][] getCanopyGrid() {
+        return canopyGrid;
+    }
+
+    /**
+     * Returns the colors of the canopy's leaves.
+     *
+     * @return The index in LEAF_COLORS of the leaf in each cell.
+     */
+    public int[][] getLeafColors() {
+        return leafColors;
+    }
+
+    /**
+     * Returns the image of the whole canopy.
+     *
+     * @return The renderable shared by the baked canopies of this variant.
+     */
+    public Renderable getCanopyRenderable() {
+        return canopyRenderable;
+    }
+
+    /**
+     * Returns the image of the canopy without its fruits.
+     *
+     * @return The renderable shared by the baked canopies of this variant once a fruit was eaten.
+     */
+    public Renderable getLeavesOnlyRenderable() {
+        return leavesOnlyRenderable;
+    }
+
+    /**
+     * Returns the number of fruits in the canopy.
+     *
+     * @return The number of canopy cells holding a fruit.
+     */
+    public int getFruitCount() {
+        return fruitCount;
+    }
+
+    /**
+     * Returns the size of the canopy, which is the same along both axes.
+     *
+     * @return The size of the canopy, in pixels.
+     */
+    public int getCanopySize() {
+        return canopyGrid.length * Constants.LEAF_DIMENSION;
+    }
+
+    /**
+     * Returns whether a canopy cell holds a leaf.
+     *
+     * @param cellValue The value of the cell.
+     * @return True if the cell holds a leaf.
+     */
+    public static boolean hasLeaf(int cellValue) {
+        return cellValue == Constants.LEAFCELL || cellValue == Constants.FRUITANDLEAFCELL;
+    }
+
+    /**
+     * Returns whether a canopy cell holds a fruit.
+     *
+     * @param cellValue The value of the cell.
+     * @return True if the cell holds a fruit.
+     */
+    public static boolean hasFruit(int cellValue) {
+        return cellValue == Constants.FRUITCELL || cellValue == Constants.FRUITANDLEAFCELL;
+    }
+}
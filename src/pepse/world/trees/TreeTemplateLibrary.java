@@ -0,0 +1,151 @@
+package pepse.world.trees;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.RectangleRenderable;
+import pepse.util.ChunkRandom;
+import pepse.util.ColorSupplier;
+import pepse.util.Constants;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.random.RandomGenerator;
+
+/**
+ * A fixed set of tree variants for every trunk height, built once from the world seed.
+ * Placing a tree only chooses one of the variants, so the random sampling of trunks, canopy
+ * grids and colors happens once per variant instead of once per tree.
+ */
+public class TreeTemplateLibrary {
+    private final TreeTemplate[][] templates;
+
+    /**
+     * Constructor for the TreeTemplateLibrary class. Builds every variant.
+     *
+     * @param worldSeed The seed of the world.
+     */
+    public TreeTemplateLibrary(long worldSeed) {
+        RandomGenerator random = ChunkRandom.forWorld(worldSeed, ChunkRandom.Purpose.TREE_TEMPLATES);
+        templates = new TreeTemplate[Constants.MAX_TRUNK_SIZE - Constants.MIN_TRUNK_SIZE]
+                [Constants.TREE_TEMPLATE_VARIANTS];
+        for (int height = 0; height < templates.length; height++) {
+            for (int variant = 0; variant < templates[height].length; variant++) {
+                templates[height][variant] = createTemplate(
+                        (Constants.MIN_TRUNK_SIZE + height) * Constants.TRUNK_ELEMENT_SIZE, random);
+            }
+        }
+    }
+
+    /**
+     * Chooses a tree variant, every trunk height being equally likely.
+     *
+     * @param random The random stream to draw from.
+     * @return One of the library's templates.
+     */
+    public TreeTemplate choose(RandomGenerator random) {
+        TreeTemplate[] variants = templates[random.nextInt(templates.length)];
+        return variants[random.nextInt(variants.length)];
+    }
+
+    /**
+     * Builds one tree variant.
+     *
+     * @param trunkHeight The height of the trunk, in pixels.
+     * @param random      The random stream to draw from.
+     * @return The new template.
+     */
+    private static TreeTemplate createTemplate(int trunkHeight, RandomGenerator random) {
+        RectangleRenderable trunkRenderable = new RectangleRenderable(ColorSupplier.approximateColor(
+                Constants.TREE_TRUNK_COLOR, 4, random));
+        // The leaves' canopy size is based on the height of the trunk
+        int canopySize = trunkHeight / Constants.TRUNK_ELEMENT_SIZE * Constants.CANOPY_MULT_FACTOR;
+        int[][] canopyGrid = assignLeavesAndFruits(canopySize, random);
+        int[][] leafColors = assignLeafColors(canopyGrid, random);
+        return new TreeTemplate(trunkHeight, trunkRenderable, canopyGrid, leafColors,
+                bakeCanopy(canopyGrid, leafColors, true), bakeCanopy(canopyGrid, leafColors, false));
+    }
+
+    /**
+     * Assigns leaves and fruits to positions in a canopy grid.
+     *
+     * @param canopySize The size of the canopy grid.
+     * @param random     The random stream to draw from.
+     * @return A 2D array representing the canopy grid.
+     */
+    private static int[][] assignLeavesAndFruits(int canopySize, RandomGenerator random) {
+        int gridSize = canopySize / Constants.LEAF_DIMENSION;
+        int[][] canopyGrid = new int[gridSize][gridSize];
+
+        for (int x = 0; x < gridSize; x++) {
+            for (int y = 0; y < gridSize; y++) {
+                if (random.nextDouble() < Constants.LEAF_SUCCESS_RATE) {
+                    canopyGrid[x][y] = random.nextDouble()
+                            < Constants.FRUIT_PROBABILITY ? Constants.FRUITANDLEAFCELL : Constants.LEAFCELL;
+                    // Leaf with or without fruit
+                } else if (random.nextDouble() < Constants.FRUIT_PROBABILITY) {
+                    canopyGrid[x][y] = Constants.FRUITCELL; // Fruit only
+                }
+            }
+        }
+        return canopyGrid;
+    }
+
+    /**
+     * Chooses the color of every leaf in a canopy grid, biased the same way as the leaf colors.
+     *
+     * @param canopyGrid The canopy grid.
+     * @param random     The random stream to draw from.
+     * @return The index in LEAF_COLORS of the leaf in each cell.
+     */
+    private static int[][] assignLeafColors(int[][] canopyGrid, RandomGenerator random) {
+        int[][] leafColors = new int[canopyGrid.length][];
+        for (int x = 0; x < canopyGrid.length; x++) {
+            leafColors[x] = new int[canopyGrid[x].length];
+            for (int y = 0; y < canopyGrid[x].length; y++) {
+                if (TreeTemplate.hasLeaf(canopyGrid[x][y])) {
+                    Color color = ColorSupplier.chooseRandomColor(Constants.LEAF_COLORS, random);
+                    for (int i = 0; i < Constants.LEAF_COLORS.length; i++) {
+                        if (Constants.LEAF_COLORS[i] == color) {
+                            leafColors[x][y] = i;
+                        }
+                    }
+                }
+            }
+        }
+        return leafColors;
+    }
+
+    /**
+     * Draws a canopy grid into a single image, fruits below leaves as they are layered in the
+     * world.
+     *
+     * @param canopyGrid The canopy grid.
+     * @param leafColors The index in LEAF_COLORS of the leaf in each cell.
+     * @param withFruit  Whether to draw the fruits.
+     * @return The image of the canopy.
+     */
+    private static ImageRenderable bakeCanopy(int[][] canopyGrid, int[][] leafColors, boolean withFruit) {
+        int size = canopyGrid.length * Constants.LEAF_DIMENSION;
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        for (int x = 0; x < canopyGrid.length; x++) {
+            for (int y = 0; y < canopyGrid[x].length; y++) {
+                if (withFruit && TreeTemplate.hasFruit(canopyGrid[x][y])) {
+                    graphics.fillOval(x * Constants.LEAF_DIMENSION, y * Constants.LEAF_DIMENSION,
+                            Constants.FRUIT_DIMENSION, Constants.FRUIT_DIMENSION);
+                }
+            }
+        }
+        for (int x = 0; x < canopyGrid.length; x++) {
+            for (int y = 0; y < canopyGrid[x].length; y++) {
+                if (TreeTemplate.hasLeaf(canopyGrid[x][y])) {
+                    graphics.setColor(Constants.LEAF_COLORS[leafColors[x][y]]);
+                    graphics.fillRect(x * Constants.LEAF_DIMENSION, y * Constants.LEAF_DIMENSION,
+                            Constants.LEAF_DIMENSION, Constants.LEAF_DIMENSION);
+                }
+            }
+        }
+        graphics.dispose();
+        return new ImageRenderable(image);
+    }
+}
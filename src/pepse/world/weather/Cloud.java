@@ -1,133 +1,161 @@
 package pepse.world.weather;
 
-import danogl.components.CoordinateSpace;
-import danogl.components.Transition;
-import pepse.util.Constants;
-import pepse.world.Block;
-import pepse.util.ColorSupplier;
-
 import danogl.GameObject;
-import danogl.gui.rendering.RectangleRenderable;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.ImageRenderable;
 import danogl.util.Vector2;
+import pepse.util.ColorSupplier;
+import pepse.util.Constants;
+import pepse.world.daynight.AmbientLight;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.util.Random;
+
 /**
- * A class that handles the creation and animation of clouds in the game world.
- * Clouds consist of multiple blocks and move across the screen with a transition.
+ * A reusable cloud, drawn as one image covering the cloud grid.
+ * Each time the cloud is reshaped, a new random shape is drawn from the shared probability
+ * template into the cloud's own image, so the same object and image serve every cloud it ever
+ * shows. The shape is kept as the shade of every cell, so the image is redrawn in the shades of
+ * another ambient light level only when the level changes. The cloud is a plain game object in
+ * camera coordinates rather than a set of blocks, so it never takes part in collisions, and
+ * moving it is a single position update.
  */
-public class Cloud {
-
+public class Cloud extends GameObject {
+    private static final float[][] PROBABILITY_GRID = createProbabilityGrid();
+    private static final Color[][] TINTED_SHADES = createTintedShades();
+    private static final byte NO_CELL = -1;
+    private static final int SIZE = Constants.CLOUD_GRID_SIZE * Constants.BLOCK_SIZE;
+
+    private final BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+    private final byte[][] cellShades = new byte[Constants.CLOUD_GRID_SIZE][Constants.CLOUD_GRID_SIZE];
+    private int ambientLevel = 0;
+    private float x;
+    private float y;
 
-    private final Random random = new Random();
-    private final List<Block> blocks = new ArrayList<>();
-    private final List<Float> blockOffsets = new ArrayList<>();
-    private final Vector2 initialPosition;
-    private final Vector2 finalPosition;
+    /**
+     * Constructor for the Cloud class. The cloud is shaped and placed with reshape.
+     */
+    public Cloud() {
+        super(Vector2.ZERO, new Vector2(SIZE, SIZE), null);
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag("cloud");
+        renderer().setRenderable(new ImageRenderable(image));
+    }
 
     /**
-     * Constructor for the Cloud class.
+     * Draws a new random shape into the cloud's image and moves it.
      *
-     * @param windowDimensions Dimensions of the game window.
-     * @param cameraPosition   Position of the camera (unused but kept for flexibility).
+     * @param random The random generator to draw the shape with.
+     * @param x      The x-coordinate of the cloud grid's top left corner, in camera coordinates.
+     * @param y      The y-coordinate of the cloud grid's top left corner, in camera coordinates.
      */
-    public Cloud(Vector2 windowDimensions, Vector2 cameraPosition) {
-        this.initialPosition = new Vector2(-Constants.BLOCK_SIZE * (Constants.CLOUD_GRID_SIZE + 1),
-                windowDimensions.y() * (Constants.CLOUD_Y_DIMENSIONS_FACTOR));
-        this.finalPosition = new Vector2(windowDimensions.x() + Constants.BLOCK_SIZE *
-                Constants.CLOUD_GRID_SIZE,
-                windowDimensions.y() * (Constants.CLOUD_Y_DIMENSIONS_FACTOR));
+    public void reshape(Random random, float x, float y) {
+        for (int row = 0; row < Constants.CLOUD_GRID_SIZE; row++) {
+            for (int col = 0; col < Constants.CLOUD_GRID_SIZE; col++) {
+                cellShades[row][col] = random.nextFloat() < PROBABILITY_GRID[row][col]
+                        ? (byte) random.nextInt(Constants.CLOUD_SHADES) : NO_CELL;
+            }
+        }
+        redraw();
+        moveTo(x, y);
     }
 
     /**
-     * Creates the cloud by generating blocks based on a binary grid.
+     * Redraws the cloud's image in the shades of an ambient light level, if it changed.
+     *
+     * @param level The ambient light level.
      */
-    public void create() {
-        int[][] binaryGrid = generateBinaryGrid(getProbabilityGrid());
-
-        for (int row = 0; row < binaryGrid.length; row++) {
-            for (int col = 0; col < binaryGrid[0].length; col++) {
-                if (binaryGrid[row][col] == 1) {
-                    Vector2 blockPosition = initialPosition.add(new Vector2(col * Constants.BLOCK_SIZE,
-                            row * Constants.BLOCK_SIZE));
-                    RectangleRenderable blockRenderable = new RectangleRenderable(
-                            ColorSupplier.approximateMonoColor(Constants.BASE_CLOUD_COLOR)
-                    );
-                    Block block = new Block(blockPosition, blockRenderable);
-                    block.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-                    blocks.add(block);
-                    blockOffsets.add((float) col * Constants.BLOCK_SIZE);
+    public void setAmbientLevel(int level) {
+        if (level != ambientLevel) {
+            ambientLevel = level;
+            redraw();
+        }
+    }
+
+    /** Draws the cells of the cloud's shape into its image, in the current ambient light. */
+    private void redraw() {
+        Color[] shades = TINTED_SHADES[ambientLevel];
+        Graphics2D graphics = image.createGraphics();
+        graphics.setComposite(AlphaComposite.Clear);
+        graphics.fillRect(0, 0, SIZE, SIZE);
+        graphics.setComposite(AlphaComposite.SrcOver);
+        for (int row = 0; row < Constants.CLOUD_GRID_SIZE; row++) {
+            for (int col = 0; col < Constants.CLOUD_GRID_SIZE; col++) {
+                if (cellShades[row][col] != NO_CELL) {
+                    graphics.setColor(shades[cellShades[row][col]]);
+                    graphics.fillRect(col * Constants.BLOCK_SIZE, row * Constants.BLOCK_SIZE,
+                            Constants.BLOCK_SIZE, Constants.BLOCK_SIZE);
                 }
             }
         }
+        graphics.dispose();
     }
 
     /**
-     * Starts the animation for the cloud's movement across the screen.
+     * Moves the cloud.
      *
-     * @param owner             The GameObject controlling the animation.
-     * @param animationDuration The duration of the cloud's transition.
-     * @param onComplete        A Runnable to execute upon animation completion.
+     * @param x The x-coordinate of the cloud grid's top left corner, in camera coordinates.
+     * @param y The y-coordinate of the cloud grid's top left corner, in camera coordinates.
      */
-    public void startTransition(GameObject owner, float animationDuration, Runnable onComplete) {
-        new Transition<>(
-                owner,
-                dx -> {
-                    for (int i = 0; i < blocks.size(); i++) {
-                        Block block = blocks.get(i);
-                        float offsetX = blockOffsets.get(i);
-                        Vector2 newPosition = new Vector2(initialPosition.x() + dx + offsetX,
-                                block.getTopLeftCorner().y());
-                        block.setTopLeftCorner(newPosition);
-                    }
-                },
-                0f,
-                (finalPosition.x() - initialPosition.x()),
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                animationDuration,
-                Transition.TransitionType.TRANSITION_ONCE,
-                onComplete);
+    public void moveTo(float x, float y) {
+        this.x = x;
+        this.y = y;
+        transform().setTopLeftCorner(x, y);
     }
 
     /**
-     * Returns the list of blocks composing the cloud.
+     * Returns the x-coordinate of the cloud grid's top left corner.
      *
-     * @return A list of Block objects.
+     * @return The x-coordinate, in camera coordinates.
      */
-    public List<Block> getBlocks() {
-        return blocks;
+    public float getX() {
+        return x;
     }
 
     /**
-     * Generates a binary grid based on a probability grid.
+     * Returns the y-coordinate of the cloud grid's top left corner.
      *
-     * @param probabilities A 2D array of probabilities for block placement.
-     * @return A binary grid where 1 indicates block placement and 0 indicates no block.
+     * @return The y-coordinate, in camera coordinates.
      */
-    private static int[][] generateBinaryGrid(float[][] probabilities) {
-        int rows = probabilities.length;
-        int cols = probabilities[0].length;
+    public float getY() {
+        return y;
+    }
 
-        int[][] result = new int[rows][cols];
-        Random random = new Random();
+    /**
+     * Returns the x-coordinate of the center of the cloud's grid.
+     *
+     * @return The x-coordinate, in camera coordinates.
+     */
+    public float getCenterX() {
+        return x + SIZE / 2f;
+    }
 
-        for (int i = 0; i < rows; i++) {
-            for (int j = 0; j < cols; j++) {
-                float randomValue = random.nextFloat();
-                result[i][j] = randomValue < probabilities[i][j] ? 1 : 0;
-            }
-        }
+    /**
+     * Returns the y-coordinate of the center of the cloud's grid.
+     *
+     * @return The y-coordinate, in camera coordinates.
+     */
+    public float getCenterY() {
+        return y + SIZE / 2f;
+    }
 
-        return result;
+    /**
+     * Returns the center of the cloud's grid.
+     *
+     * @return A Vector2 representing the cloud's center position.
+     */
+    @Override
+    public Vector2 getCenter() {
+        return new Vector2(getCenterX(), getCenterY());
     }
 
     /**
-     * Creates a probability grid for block placement in the cloud.
+     * Creates the probability of a block in every cell of the cloud grid, shared by all clouds.
      *
      * @return A 2D array of probabilities for block placement.
      */
-    private float[][] getProbabilityGrid() {
+    private static float[][] createProbabilityGrid() {
         float[][] probabilities = new float[Constants.CLOUD_GRID_SIZE][Constants.CLOUD_GRID_SIZE];
         float center = Constants.CLOUD_GRID_SIZE / Constants.HALF;
         float denseRadius = center * Constants.CLOUD_DENSE_RADIUS;
@@ -152,13 +180,20 @@ public class Cloud {
     }
 
     /**
-     * Returns the center of the cloud's grid.
+     * Creates the shades of white the cells of a cloud are drawn with, shared by all clouds,
+     * tinted by every level of the ambient light.
      *
-     * @return A Vector2 representing the cloud's center position.
+     * @return The colors of the shades, indexed by ambient light level and then by shade.
      */
-    public Vector2 getCenter() {
-        return blocks.get((Constants.CLOUD_GRID_SIZE / Constants.HALF) + 1).getCenter();
+    private static Color[][] createTintedShades() {
+        Color[][] shades = new Color[Constants.AMBIENT_LIGHT_LEVELS][Constants.CLOUD_SHADES];
+        for (int i = 0; i < Constants.CLOUD_SHADES; i++) {
+            Color[] tints = AmbientLight.tints(
+                    ColorSupplier.approximateMonoColor(Constants.BASE_CLOUD_COLOR));
+            for (int level = 0; level < tints.length; level++) {
+                shades[level][i] = tints[level];
+            }
+        }
+        return shades;
     }
-
-
 }
@@ -0,0 +1,104 @@
+package pepse.world.weather;
+
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.world.daynight.AmbientLightListener;
+
+import java.util.Random;
+
+/**
+ * Several clouds drifting across the sky at once, drawn from a fixed pool of reusable clouds.
+ * A cloud that leaves the screen on the right is reshaped and sent in again from the left, so
+ * the number of cloud objects never changes however long the game runs.
+ * The clouds are darkened by the ambient light.
+ */
+public class CloudSystem implements AmbientLightListener {
+    private final Random random = new Random();
+    private final Cloud[] clouds;
+    private final float startX;
+    private final float endX;
+    private final float baseY;
+    private final float yVariation;
+    private final float speed;
+
+    /**
+     * Constructor for the CloudSystem class. The clouds start spread evenly across their path.
+     *
+     * @param windowDimensions Dimensions of the game window.
+     * @param cloudCount       The number of clouds in the pool.
+     */
+    public CloudSystem(Vector2 windowDimensions, int cloudCount) {
+        this.clouds = new Cloud[cloudCount];
+        this.startX = -Constants.BLOCK_SIZE * (Constants.CLOUD_GRID_SIZE + 1);
+        this.endX = windowDimensions.x() + Constants.BLOCK_SIZE * Constants.CLOUD_GRID_SIZE;
+        this.baseY = windowDimensions.y() * Constants.CLOUD_Y_DIMENSIONS_FACTOR;
+        this.yVariation = windowDimensions.y() * Constants.CLOUD_Y_VARIATION_FACTOR;
+        this.speed = (endX - startX) / Constants.CLOUD_ANIMATION_DURATION;
+        for (int i = 0; i < clouds.length; i++) {
+            clouds[i] = new Cloud();
+            clouds[i].reshape(random, startX + (endX - startX) * i / clouds.length, randomY());
+        }
+    }
+
+    /**
+     * Returns the pool of clouds.
+     *
+     * @return Every cloud, whether on screen or waiting to come in.
+     */
+    public Cloud[] getClouds() {
+        return clouds;
+    }
+
+    /**
+     * Returns the cloud whose center is horizontally closest to a point.
+     *
+     * @param x The x-coordinate of the point, in camera coordinates.
+     * @return The nearest cloud.
+     */
+    public Cloud nearestCloud(float x) {
+        Cloud nearest = clouds[0];
+        for (Cloud cloud : clouds) {
+            if (Math.abs(cloud.getCenterX() - x) < Math.abs(nearest.getCenterX() - x)) {
+                nearest = cloud;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Redraws every cloud in the shades of an ambient light level.
+     *
+     * @param level The ambient light level.
+     */
+    @Override
+    public void onAmbientLevelChanged(int level) {
+        for (Cloud cloud : clouds) {
+            cloud.setAmbientLevel(level);
+        }
+    }
+
+    /**
+     * Drifts every cloud to the right, recycling the clouds that left the screen.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    public void update(float deltaTime) {
+        for (Cloud cloud : clouds) {
+            float x = cloud.getX() + speed * deltaTime;
+            if (x >= endX) {
+                cloud.reshape(random, startX + (x - endX), randomY());
+            } else {
+                cloud.moveTo(x, cloud.getY());
+            }
+        }
+    }
+
+    /**
+     * Chooses the height of a new cloud.
+     *
+     * @return The y-coordinate of the cloud grid's top left corner, in camera coordinates.
+     */
+    private float randomY() {
+        return baseY + random.nextFloat() * yVariation;
+    }
+}
@@ -0,0 +1,157 @@
+package pepse.world.weather;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.world.daynight.AmbientLight;
+import pepse.world.daynight.AmbientLightListener;
+
+import java.awt.*;
+
+/**
+ * All the raindrops in the game, kept as one game object.
+ * The position, velocity and remaining life of every drop are stored in preallocated float
+ * arrays used as a ring buffer: every drop lives equally long, so the oldest drop is always at
+ * the start of the ring, expired drops are dropped from there, and once the ring is full a new
+ * drop replaces the oldest one. Spawning never allocates, all drops are moved in one loop, and
+ * they are drawn by a single renderable each frame, with colors prepared for every fade and
+ * every level of the ambient light.
+ */
+public class RainParticleSystem extends GameObject implements AmbientLightListener {
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] velocityX;
+    private final float[] velocityY;
+    private final float[] life;
+    private final Color[][] tintedFadeColors =
+            new Color[Constants.AMBIENT_LIGHT_LEVELS][Constants.RAINDROP_ALPHA_LEVELS];
+    private Color[] fadeColors;
+    private int first = 0;
+    private int count = 0;
+
+    /**
+     * Constructor for the RainParticleSystem class.
+     *
+     * @param windowDimensions The dimensions of the game window, which the drops are drawn over.
+     * @param capacity         The maximal number of drops alive at once.
+     */
+    public RainParticleSystem(Vector2 windowDimensions, int capacity) {
+        super(Vector2.ZERO, windowDimensions, null);
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag("raindrop");
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.velocityX = new float[capacity];
+        this.velocityY = new float[capacity];
+        this.life = new float[capacity];
+        for (int level = 0; level < Constants.RAINDROP_ALPHA_LEVELS; level++) {
+            int alpha = Math.round(255f * level / (Constants.RAINDROP_ALPHA_LEVELS - 1));
+            Color[] tints = AmbientLight.tints(new Color(Constants.RAINDROP_COLOR.getRed(),
+                    Constants.RAINDROP_COLOR.getGreen(), Constants.RAINDROP_COLOR.getBlue(), alpha));
+            for (int ambientLevel = 0; ambientLevel < tints.length; ambientLevel++) {
+                tintedFadeColors[ambientLevel][level] = tints[ambientLevel];
+            }
+        }
+        this.fadeColors = tintedFadeColors[0];
+        renderer().setRenderable(this::renderDrops);
+    }
+
+    /**
+     * Spawns a drop, replacing the oldest drop if the system is full.
+     *
+     * @param topLeftX  The x-coordinate of the drop's top left corner, in camera coordinates.
+     * @param topLeftY  The y-coordinate of the drop's top left corner, in camera coordinates.
+     * @param velocityX The horizontal velocity of the drop.
+     * @param velocityY The vertical velocity of the drop.
+     */
+    public void spawn(float topLeftX, float topLeftY, float velocityX, float velocityY) {
+        int index;
+        if (count == capacity) {
+            index = first;
+            first = (first + 1) % capacity;
+        } else {
+            index = (first + count) % capacity;
+            count++;
+        }
+        this.x[index] = topLeftX;
+        this.y[index] = topLeftY;
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+        this.life[index] = Constants.RAINDROP_TRANSITION_TIME;
+    }
+
+    /**
+     * Switches to the drop colors of an ambient light level.
+     *
+     * @param level The ambient light level.
+     */
+    @Override
+    public void onAmbientLevelChanged(int level) {
+        fadeColors = tintedFadeColors[level];
+    }
+
+    /**
+     * Returns the number of drops alive.
+     *
+     * @return The number of drops.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Moves every drop, ages it, and drops the ones that have fully faded.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        for (int i = 0; i < count; i++) {
+            int index = (first + i) % capacity;
+            x[index] += velocityX[index] * deltaTime;
+            y[index] += velocityY[index] * deltaTime;
+            life[index] -= deltaTime;
+        }
+        while (count > 0 && life[first] <= 0) {
+            first = (first + 1) % capacity;
+            count--;
+        }
+    }
+
+    /**
+     * Draws every drop, faded linearly by its age.
+     *
+     * @param g                       The graphics to draw with.
+     * @param topLeftCorner           The screen position of the system's top left corner.
+     * @param dimensions              The dimensions of the system.
+     * @param degreesCounterClockwise Unused, the drops are never rotated.
+     * @param isFlippedHorizontally   Unused, the drops are never flipped.
+     * @param isFlippedVertically     Unused, the drops are never flipped.
+     * @param opaqueness              The opaqueness of the whole system.
+     */
+    private void renderDrops(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                             double degreesCounterClockwise, boolean isFlippedHorizontally,
+                             boolean isFlippedVertically, double opaqueness) {
+        float originX = topLeftCorner.x();
+        float originY = topLeftCorner.y();
+        int maxLevel = fadeColors.length - 1;
+        for (int i = 0; i < count; i++) {
+            int index = (first + i) % capacity;
+            float progress = 1f - life[index] / Constants.RAINDROP_TRANSITION_TIME;
+            float opacity = (Constants.RAINDROP_INIT_OPAQUENESS + progress
+                    * (Constants.RAINDROP_FINAL_OPAQUENESS - Constants.RAINDROP_INIT_OPAQUENESS))
+                    * (float) opaqueness;
+            int level = Math.max(0, Math.min(maxLevel, Math.round(opacity * maxLevel)));
+            if (level == 0) {
+                continue;
+            }
+            g.setColor(fadeColors[level]);
+            g.fillRect(Math.round(originX + x[index]), Math.round(originY + y[index]),
+                    Constants.RAINDROP_WIDTH, Constants.RAINDROP_HEIGHT);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package pepse.world.weather;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.util.Constants;
+import pepse.world.HeightmapCache;
+import pepse.world.daynight.AmbientLight;
+import pepse.world.daynight.AmbientLightListener;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Continuous snow falling from under the clouds, simulated for tens of thousands of flakes.
+ * Flakes are kept in preallocated arrays in world coordinates. Every frame, the ground heights
+ * under the view are copied into a flat heightfield, and then the flakes are moved, tested
+ * against it and drawn straight into the pixels of one image, in parallel over ranges of flake
+ * indices. Only the rows drawn into in the previous frame are cleared, and only the band of rows
+ * holding flakes is drawn over the window, or nothing at all when no flake is drawn. A flake
+ * that hits the ground splashes, throwing a spray of snow to both sides, then
+ * rests there for a moment and falls again from a random cloud, as does a flake that leaves the
+ * view.
+ * The flakes are drawn in the color prepared for the current level of the ambient light.
+ * The number of falling flakes can be changed at any time, up to the capacity.
+ */
+public class Snowfall extends GameObject implements AmbientLightListener {
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] fallSpeed;
+    private final float[] driftPhase;
+    private final float[] restTime;
+    private final int[] randomState;
+    private final GameObject camera;
+    private final CloudSystem clouds;
+    private final HeightmapCache heightmapCache;
+    private final float[] heightfield;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private final boolean[] rowPlotted;
+    private int firstPlottedRow = 0;
+    private int lastPlottedRow = -1;
+    private final int[] tintedFlakeColors = new int[Constants.AMBIENT_LIGHT_LEVELS];
+    private int flakeColor;
+    private ForkJoinPool workers;
+    private int particleCount;
+    private float time = 0;
+    private float viewLeft;
+    private float viewTop;
+    private int heightfieldFirstColumn;
+    private final float[] sourceX;
+    private final float[] sourceY;
+    private float deltaTime;
+    private long lastUpdateNanos = 0;
+
+    /**
+     * Constructor for the Snowfall class.
+     *
+     * @param windowDimensions The dimensions of the game window, which the snow is drawn over.
+     * @param camera           The camera, whose position gives the world position of the view.
+     * @param clouds           The clouds the snow falls from.
+     * @param heightmapCache   The column heights of the terrain the snow lands on.
+     * @param capacity         The maximal number of flakes.
+     * @param particleCount    The number of flakes falling at first.
+     */
+    public Snowfall(Vector2 windowDimensions, GameObject camera, CloudSystem clouds,
+                    HeightmapCache heightmapCache, int capacity, int particleCount) {
+        super(Vector2.ZERO, windowDimensions, null);
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        setTag("snow");
+        this.camera = camera;
+        this.clouds = clouds;
+        this.heightmapCache = heightmapCache;
+        this.sourceX = new float[clouds.getClouds().length];
+        this.sourceY = new float[clouds.getClouds().length];
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.fallSpeed = new float[capacity];
+        this.driftPhase = new float[capacity];
+        this.restTime = new float[capacity];
+        this.randomState = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            // Any nonzero start works for xorshift; spread the indices over the whole range
+            randomState[i] = (i + 1) * 0x9E3779B9;
+        }
+        this.heightfield = new float[(int) Math.ceil(windowDimensions.x() / Constants.BLOCK_SIZE)
+                + 2 * Constants.SNOW_HEIGHTFIELD_MARGIN];
+        this.image = new BufferedImage((int) windowDimensions.x(), (int) windowDimensions.y(),
+                BufferedImage.TYPE_INT_ARGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        this.rowPlotted = new boolean[image.getHeight()];
+        Color[] tints = AmbientLight.tints(Constants.SNOW_COLOR);
+        for (int level = 0; level < tints.length; level++) {
+            tintedFlakeColors[level] = tints[level].getRGB();
+        }
+        this.flakeColor = tintedFlakeColors[0];
+        this.workers = ForkJoinPool.commonPool();
+        setParticleCount(particleCount);
+        renderer().setRenderable(this::renderSnow);
+    }
+
+    /**
+     * Sets the number of falling flakes. Added flakes start from the clouds.
+     *
+     * @param particleCount The number of flakes, clamped to the capacity.
+     */
+    public void setParticleCount(int particleCount) {
+        int clamped = Math.max(0, Math.min(capacity, particleCount));
+        for (int i = this.particleCount; i < clamped; i++) {
+            y[i] = Float.POSITIVE_INFINITY;
+            restTime[i] = 0;
+        }
+        this.particleCount = clamped;
+    }
+
+    /**
+     * Switches to the flake color of an ambient light level, from the next update on.
+     *
+     * @param level The ambient light level.
+     */
+    @Override
+    public void onAmbientLevelChanged(int level) {
+        flakeColor = tintedFlakeColors[level];
+    }
+
+    /**
+     * Returns the number of falling flakes.
+     *
+     * @return The number of flakes.
+     */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * Returns the maximal number of flakes.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the number of threads the flakes are updated on, replacing the common pool used by
+     * default.
+     *
+     * @param parallelism The number of worker threads.
+     */
+    public void setParallelism(int parallelism) {
+        if (workers != ForkJoinPool.commonPool()) {
+            workers.shutdown();
+        }
+        workers = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    /**
+     * Returns the time the last update of the flakes took, drawing included.
+     *
+     * @return The duration of the last update, in nanoseconds.
+     */
+    public long getLastUpdateNanos() {
+        return lastUpdateNanos;
+    }
+
+    /**
+     * Moves, lands and respawns every flake and draws them into the snow image.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        long start = System.nanoTime();
+        this.deltaTime = deltaTime;
+        this.time += deltaTime;
+        Vector2 view = camera.getTopLeftCorner();
+        this.viewLeft = view.x();
+        this.viewTop = view.y();
+        Cloud[] sources = clouds.getClouds();
+        for (int i = 0; i < sources.length; i++) {
+            sourceX[i] = viewLeft + sources[i].getCenterX();
+            sourceY[i] = viewTop + sources[i].getCenterY();
+        }
+        snapshotHeightfield();
+        clearPlottedRows();
+        if (particleCount > 0) {
+            workers.invoke(new UpdateRange(0, particleCount));
+        }
+        findPlottedRows();
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+
+    /** Clears the rows of the snow image that flakes were drawn into in the previous frame. */
+    private void clearPlottedRows() {
+        int width = image.getWidth();
+        for (int row = firstPlottedRow; row <= lastPlottedRow; row++) {
+            if (rowPlotted[row]) {
+                Arrays.fill(pixels, row * width, (row + 1) * width, 0);
+                rowPlotted[row] = false;
+            }
+        }
+    }
+
+    /** Finds the first and last rows of the snow image that flakes were drawn into. */
+    private void findPlottedRows() {
+        firstPlottedRow = 0;
+        while (firstPlottedRow < rowPlotted.length && !rowPlotted[firstPlottedRow]) {
+            firstPlottedRow++;
+        }
+        lastPlottedRow = rowPlotted.length - 1;
+        while (lastPlottedRow >= firstPlottedRow && !rowPlotted[lastPlottedRow]) {
+            lastPlottedRow--;
+        }
+    }
+
+    /** Copies the ground heights of the columns under the view, and a margin around it. */
+    private void snapshotHeightfield() {
+        heightfieldFirstColumn = (int) Math.floor(viewLeft / Constants.BLOCK_SIZE)
+                - Constants.SNOW_HEIGHTFIELD_MARGIN;
+        int chunk = Math.floorDiv(heightfieldFirstColumn, Constants.CHUNK_WIDTH);
+        float[] heights = heightmapCache.get(chunk);
+        for (int i = 0; i < heightfield.length; i++) {
+            int column = heightfieldFirstColumn + i;
+            if (Math.floorDiv(column, Constants.CHUNK_WIDTH) != chunk) {
+                chunk = Math.floorDiv(column, Constants.CHUNK_WIDTH);
+                heights = heightmapCache.get(chunk);
+            }
+            // The ground blocks start at the block-aligned height, as they are placed
+            heightfield[i] = (float) Math.floor(heights[column - chunk * Constants.CHUNK_WIDTH]
+                    / Constants.BLOCK_SIZE) * Constants.BLOCK_SIZE;
+        }
+    }
+
+    /**
+     * Moves one flake, lands it on the ground or respawns it, and draws it.
+     *
+     * @param i The index of the flake.
+     */
+    private void updateFlake(int i) {
+        if (restTime[i] > 0) {
+            restTime[i] -= deltaTime;
+            if (restTime[i] <= 0) {
+                // Done resting: fall again from a cloud on the next update
+                restTime[i] = 0;
+                y[i] = Float.POSITIVE_INFINITY;
+                return;
+            }
+            float splashAge = Constants.SNOW_REST_TIME + Constants.SNOW_SPLASH_TIME - restTime[i];
+            if (splashAge < Constants.SNOW_SPLASH_TIME) {
+                plotSplash(x[i] - viewLeft, y[i] - viewTop, splashAge / Constants.SNOW_SPLASH_TIME);
+            }
+        } else if (y[i] == Float.POSITIVE_INFINITY) {
+            respawn(i);
+        } else {
+            x[i] += (float) Math.sin(time * Constants.SNOW_DRIFT_FREQUENCY + driftPhase[i])
+                    * Constants.SNOW_DRIFT_SPEED * deltaTime;
+            y[i] += fallSpeed[i] * deltaTime;
+            int column = (int) Math.floor(x[i] / Constants.BLOCK_SIZE) - heightfieldFirstColumn;
+            if (column < 0 || column >= heightfield.length) {
+                respawn(i);
+            } else if (y[i] >= heightfield[column] - Constants.SNOW_FLAKE_SIZE) {
+                y[i] = heightfield[column] - Constants.SNOW_FLAKE_SIZE;
+                restTime[i] = Constants.SNOW_REST_TIME + Constants.SNOW_SPLASH_TIME;
+            }
+        }
+        plot(Math.round(x[i] - viewLeft), Math.round(y[i] - viewTop));
+    }
+
+    /**
+     * Starts a flake falling again from under a random cloud.
+     *
+     * @param i The index of the flake.
+     */
+    private void respawn(int i) {
+        int source = Math.min(sourceX.length - 1, (int) (nextFloat(i) * sourceX.length));
+        x[i] = sourceX[source] + (nextFloat(i) * 2 - 1) * Constants.SNOW_SPAWN_SPREAD;
+        y[i] = sourceY[source] + nextFloat(i) * Constants.SNOW_SPAWN_DEPTH;
+        fallSpeed[i] = Constants.SNOW_MIN_FALL_SPEED
+                + nextFloat(i) * (Constants.SNOW_MAX_FALL_SPEED - Constants.SNOW_MIN_FALL_SPEED);
+        driftPhase[i] = nextFloat(i) * (float) (2 * Math.PI);
+        restTime[i] = 0;
+    }
+
+    /**
+     * Draws the spray of a splash into the snow image: a flake thrown to each side of the landed
+     * flake, rising and falling back to the ground as the splash ages.
+     *
+     * @param left     The x-coordinate of the landed flake in the image.
+     * @param top      The y-coordinate of the landed flake in the image.
+     * @param progress How far the splash is, from 0 when the flake landed to 1.
+     */
+    private void plotSplash(float left, float top, float progress) {
+        float spread = progress * Constants.SNOW_SPLASH_SPREAD;
+        float rise = 4 * progress * (1 - progress) * Constants.SNOW_SPLASH_HEIGHT;
+        int sprayTop = Math.round(top - rise);
+        plot(Math.round(left - spread), sprayTop);
+        plot(Math.round(left + spread), sprayTop);
+    }
+
+    /**
+     * Draws a flake into the snow image and marks its rows to be cleared. Flakes only ever write
+     * the same color and mark, so flakes drawn from different threads may overlap safely.
+     *
+     * @param left The x-coordinate of the flake in the image.
+     * @param top  The y-coordinate of the flake in the image.
+     */
+    private void plot(int left, int top) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        for (int row = Math.max(0, top); row < Math.min(height, top + Constants.SNOW_FLAKE_SIZE); row++) {
+            rowPlotted[row] = true;
+            for (int col = Math.max(0, left); col < Math.min(width, left + Constants.SNOW_FLAKE_SIZE); col++) {
+                pixels[row * width + col] = flakeColor;
+            }
+        }
+    }
+
+    /**
+     * Returns the next value of a flake's own random stream, so flakes can respawn from any
+     * thread without sharing a generator.
+     *
+     * @param i The index of the flake.
+     * @return A uniform value in [0, 1).
+     */
+    private float nextFloat(int i) {
+        int state = randomState[i];
+        state ^= state << 13;
+        state ^= state >>> 17;
+        state ^= state << 5;
+        randomState[i] = state;
+        return (state >>> 8) / (float) (1 << 24);
+    }
+
+    /**
+     * Draws the band of the snow image that holds flakes over the same band of the window, or
+     * nothing if no flake was drawn.
+     *
+     * @param g                       The graphics to draw with.
+     * @param topLeftCorner           The screen position of the snow's top left corner.
+     * @param dimensions              The dimensions of the snow image on screen.
+     * @param degreesCounterClockwise Unused, the snow is never rotated.
+     * @param isFlippedHorizontally   Unused, the snow is never flipped.
+     * @param isFlippedVertically     Unused, the snow is never flipped.
+     * @param opaqueness              Unused, the flakes are drawn fully opaque.
+     */
+    private void renderSnow(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                            double degreesCounterClockwise, boolean isFlippedHorizontally,
+                            boolean isFlippedVertically, double opaqueness) {
+        if (lastPlottedRow < firstPlottedRow) {
+            return;
+        }
+        int left = Math.round(topLeftCorner.x());
+        int top = Math.round(topLeftCorner.y());
+        float scaleY = dimensions.y() / image.getHeight();
+        g.drawImage(image, left, top + Math.round(firstPlottedRow * scaleY),
+                left + Math.round(dimensions.x()), top + Math.round((lastPlottedRow + 1) * scaleY),
+                0, firstPlottedRow, image.getWidth(), lastPlottedRow + 1, null);
+    }
+
+    /** Updates a range of flake indices, splitting it while it is larger than the grain. */
+    private class UpdateRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+
+        /**
+         * Constructor for the UpdateRange class.
+         *
+         * @param from The first flake index of the range.
+         * @param to   The flake index after the range.
+         */
+        UpdateRange(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /** Updates the flakes of the range, or splits it in two. */
+        @Override
+        protected void compute() {
+            if (to - from <= Constants.SNOW_UPDATE_GRAIN) {
+                for (int i = from; i < to; i++) {
+                    updateFlake(i);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new UpdateRange(from, middle), new UpdateRange(middle, to));
+        }
+    }
+}